@@ -0,0 +1,23 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.practicum.shareit.user.SharerPrincipalArgumentResolver;
+
+import java.util.List;
+
+/**
+ * Настройка Spring MVC: регистрация разрешения текущего пользователя по заголовку X-Sharer-User-Id.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+    private final SharerPrincipalArgumentResolver sharerPrincipalArgumentResolver;
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(sharerPrincipalArgumentResolver);
+    }
+}
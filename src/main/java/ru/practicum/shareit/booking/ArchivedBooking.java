@@ -0,0 +1,45 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * Завершённое бронирование, перенесённое в архив.
+ * Сохраняет идентификатор и все поля исходного бронирования; только для чтения.
+ */
+@Data
+@Entity
+@Table(name = "bookings_archive")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ArchivedBooking {
+    // Поле id — идентификатор исходного бронирования
+    @Id
+    Long id;
+
+    @Column(name = "start_date", nullable = false)
+    LocalDateTime start;
+
+    @Column(name = "end_date", nullable = false)
+    LocalDateTime end;
+
+    @Column(name = "item_id", nullable = false)
+    Long itemId;
+
+    @Column(name = "booker_id", nullable = false)
+    Long bookerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    BookingStatus status;
+
+    @Column(nullable = false)
+    Long version;
+
+    // Поле archivedAt — момент переноса в архив
+    @Column(name = "archived_at", nullable = false)
+    LocalDateTime archivedAt;
+}
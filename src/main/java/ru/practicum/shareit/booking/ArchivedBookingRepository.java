@@ -0,0 +1,125 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Репозиторий архива завершённых бронирований.
+ * Архив содержит только бронирования, закончившиеся раньше горизонта хранения, поэтому для состояний
+ * PAST и ALL используется одна и та же выборка. Пагинация — keyset по паре (start_date, id), как в
+ * {@link BookingRepository}.
+ */
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+    /**
+     * Архивные бронирования пользователя.
+     *
+     * @param bookerId    идентификатор автора бронирований
+     * @param cursorStart дата начала последнего бронирования предыдущей страницы
+     * @param cursorId    идентификатор последнего бронирования предыдущей страницы
+     * @param page        размер выборки
+     * @return бронирования, отсортированные по дате начала и id (от новых к старым)
+     */
+    @Query("select b from ArchivedBooking b " +
+            "where b.bookerId = :bookerId " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId)) " +
+            "order by b.start desc, b.id desc")
+    List<ArchivedBooking> findBookerBookings(@Param("bookerId") Long bookerId,
+                                             @Param("cursorStart") LocalDateTime cursorStart,
+                                             @Param("cursorId") Long cursorId,
+                                             Pageable page);
+
+    /**
+     * Архивные бронирования вещей владельца.
+     *
+     * @param ownerId     идентификатор владельца вещей
+     * @param cursorStart дата начала последнего бронирования предыдущей страницы
+     * @param cursorId    идентификатор последнего бронирования предыдущей страницы
+     * @param page        размер выборки
+     * @return бронирования, отсортированные по дате начала и id (от новых к старым)
+     */
+    @Query("select b from ArchivedBooking b join Item i on i.id = b.itemId " +
+            "where i.ownerId = :ownerId " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId)) " +
+            "order by b.start desc, b.id desc")
+    List<ArchivedBooking> findOwnerBookings(@Param("ownerId") Long ownerId,
+                                            @Param("cursorStart") LocalDateTime cursorStart,
+                                            @Param("cursorId") Long cursorId,
+                                            Pageable page);
+
+    /**
+     * Потоковое чтение архивных бронирований пользователя для выгрузки.
+     * Поток должен потребляться и закрываться внутри транзакции.
+     *
+     * @param bookerId идентификатор автора бронирований
+     * @return поток бронирований, отсортированных по дате начала и id (от новых к старым)
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + BookingRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select b from ArchivedBooking b where b.bookerId = :bookerId order by b.start desc, b.id desc")
+    Stream<ArchivedBooking> streamBookerBookings(@Param("bookerId") Long bookerId);
+
+    /**
+     * Потоковое чтение архивных бронирований вещей владельца для выгрузки.
+     * Поток должен потребляться и закрываться внутри транзакции.
+     *
+     * @param ownerId идентификатор владельца вещей
+     * @return поток бронирований, отсортированных по дате начала и id (от новых к старым)
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + BookingRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select b from ArchivedBooking b join Item i on i.id = b.itemId " +
+            "where i.ownerId = :ownerId order by b.start desc, b.id desc")
+    Stream<ArchivedBooking> streamOwnerBookings(@Param("ownerId") Long ownerId);
+
+    /**
+     * Окончание последнего подтверждённого архивного бронирования для набора вещей.
+     * Все архивные бронирования закончились раньше любых бронирований горячей таблицы,
+     * поэтому архив нужен только вещам, у которых там нет завершённых бронирований.
+     *
+     * @param itemIds идентификаторы вещей
+     * @return даты по вещам, у которых есть подтверждённые архивные бронирования
+     */
+    @Query("select new ru.practicum.shareit.booking.BookingDates(b.itemId, max(b.end)) from ArchivedBooking b " +
+            "where b.itemId in :itemIds and b.status = ru.practicum.shareit.booking.BookingStatus.APPROVED " +
+            "group by b.itemId")
+    List<BookingDates> findApprovedLastBookings(@Param("itemIds") Collection<Long> itemIds);
+
+    /**
+     * Проверка, что у пользователя есть архивное бронирование вещи в указанном статусе.
+     * Все архивные бронирования завершены, поэтому дата окончания не проверяется.
+     *
+     * @param itemId   идентификатор вещи
+     * @param bookerId идентификатор автора бронирования
+     * @param status   статус бронирования
+     * @return true, если такое бронирование есть
+     */
+    boolean existsByItemIdAndBookerIdAndStatus(Long itemId, Long bookerId, BookingStatus status);
+
+    /**
+     * Копирует бронирования из горячей таблицы в архив одним запросом.
+     *
+     * @param ids        идентификаторы бронирований
+     * @param archivedAt момент переноса
+     * @return количество скопированных строк
+     */
+    @Modifying
+    @Query(value = "INSERT INTO bookings_archive (id, start_date, end_date, item_id, booker_id, status, version, " +
+            "archived_at) SELECT id, start_date, end_date, item_id, booker_id, status, version, :archivedAt " +
+            "FROM bookings WHERE id IN (:ids)", nativeQuery = true)
+    int copyFromBookings(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+}
@@ -43,4 +43,8 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private BookingStatus status;
+
+    // Поле version — версия записи для оптимистической блокировки (защищает от параллельной смены статуса)
+    @Version
+    Long version;
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.model.ItemRepository;
+import ru.practicum.shareit.item.model.ItemVersion;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Планировщик переноса завершённых бронирований в архив.
+ * Бронирования, закончившиеся раньше горизонта хранения, переносятся из bookings в bookings_archive
+ * порциями: каждая порция блокируется, копируется и удаляется в отдельной транзакции,
+ * поэтому горячая таблица не блокируется надолго. Уже заблокированные строки пропускаются,
+ * так что архиваторы на разных узлах разбирают разные порции.
+ */
+@Slf4j
+@Component
+public class BookingArchiver {
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration horizon;
+    private final int batchSize;
+
+    public BookingArchiver(BookingRepository bookingRepository,
+                           ArchivedBookingRepository archivedBookingRepository,
+                           ItemRepository itemRepository,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${shareit.booking.archive.horizon:P365D}") Duration horizon,
+                           @Value("${shareit.booking.archive.batch-size:1000}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.itemRepository = itemRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.horizon = horizon;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Переносит в архив все бронирования, закончившиеся раньше горизонта хранения.
+     *
+     * @return количество перенесённых бронирований
+     */
+    @Scheduled(fixedDelayString = "${shareit.booking.archive.interval:PT1H}",
+            initialDelayString = "${shareit.booking.archive.interval:PT1H}")
+    public int archive() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime threshold = now.minus(horizon);
+        int total = 0;
+        int moved;
+        do {
+            try {
+                moved = transactionTemplate.execute(status -> archiveBatch(threshold, now));
+            } catch (OptimisticLockingFailureException e) {
+                log.debug("Archive batch rolled back, will retry on the next run: {}", e.getMessage());
+                break;
+            }
+            total += moved;
+        } while (moved == batchSize);
+        if (total > 0) {
+            log.info("Archived {} bookings ended before {}", total, threshold);
+        }
+        return total;
+    }
+
+    /**
+     * Переносит в архив одну порцию бронирований.
+     * Версии затронутых вещей читаются вместе с порцией и перед удалением увеличиваются только при совпадении:
+     * если параллельное подтверждение или бронирование задним числом изменило вещь после выборки,
+     * порция откатывается целиком, а узлы в любом случае перестраивают шкалы интервалов без архивных бронирований.
+     *
+     * @param threshold граница окончания бронирования
+     * @param now       момент переноса
+     * @return количество перенесённых бронирований
+     * @throws OptimisticLockingFailureException если версия одной из вещей изменилась после выборки порции
+     */
+    private int archiveBatch(LocalDateTime threshold, LocalDateTime now) {
+        List<Booking> bookings = bookingRepository.findEndedBefore(threshold, PageRequest.of(0, batchSize));
+        if (bookings.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = bookings.stream().map(Booking::getId).toList();
+        Set<Long> itemIds = bookings.stream().map(Booking::getItemId).collect(Collectors.toSet());
+        List<ItemVersion> versions = itemRepository.findVersionsByIdIn(itemIds);
+        archivedBookingRepository.copyFromBookings(ids, now);
+        for (ItemVersion version : versions) {
+            if (itemRepository.incrementVersionIfUnchanged(version.getItemId(), version.getVersion()) == 0) {
+                throw new OptimisticLockingFailureException(String.format(
+                        "Вещь с ID %d изменилась во время архивации", version.getItemId()));
+            }
+        }
+        bookingRepository.deleteAllByIdIn(ids);
+        return bookings.size();
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Пакетная вставка бронирований через JDBC.
+ * Hibernate не группирует INSERT для сущностей с идентификатором IDENTITY, поэтому массовое создание
+ * бронирований выполняется одним JDBC-батчем с возвратом сгенерированных ключей.
+ * Должен вызываться внутри транзакции: соединение берётся из текущей транзакции JPA.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingBatchInserter {
+    private static final String INSERT_SQL = "INSERT INTO bookings (start_date, end_date, item_id, booker_id, " +
+            "status, version) VALUES (?, ?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Вставляет бронирования одним батчем и проставляет им сгенерированные идентификаторы и версию.
+     *
+     * @param bookings новые бронирования (без идентификаторов)
+     */
+    public void insertAll(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        Booking booking = bookings.get(i);
+                        statement.setTimestamp(1, Timestamp.valueOf(booking.getStart()));
+                        statement.setTimestamp(2, Timestamp.valueOf(booking.getEnd()));
+                        statement.setLong(3, booking.getItemId());
+                        statement.setLong(4, booking.getBookerId());
+                        statement.setString(5, booking.getStatus().name());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return bookings.size();
+                    }
+                }, keyHolder);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < bookings.size(); i++) {
+            // Запрошен единственный столбец id; имя ключа зависит от драйвера (id / ID)
+            Number id = (Number) keys.get(i).values().iterator().next();
+            bookings.get(i).setId(id.longValue());
+            bookings.get(i).setVersion(0L);
+        }
+    }
+}
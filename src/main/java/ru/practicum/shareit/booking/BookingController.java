@@ -1,12 +1,22 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.user.SharerPrincipal;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Контроллер для управления бронированиями
@@ -24,71 +34,174 @@ public class BookingController {
      */
     private final BookingService bookingService;
 
-    // Константа для имени заголовка
-    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    /**
+     * Сериализатор JSON для потоковой выгрузки (тот же, что и для обычных ответов)
+     */
+    private final ObjectMapper objectMapper;
+
+    // Заголовок ответа с курсором следующей страницы (отсутствует на последней странице)
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    // Тип содержимого выгрузки: JSON-объекты, разделённые переводом строки
+    private static final String NDJSON = "application/x-ndjson";
 
     /**
      * Метод для создания нового бронирования
-     * @param userId     идентификатор пользователя, создающего бронирование
+     * @param principal  пользователь, создающий бронирование
      * @param bookingDto данные для создания бронирования
      * @return информация о созданном бронировании и статус 201 (Created)
      */
     @PostMapping
-    public ResponseEntity<BookingResponseDto> createBooking(@RequestHeader(USER_ID_HEADER) Long userId,
+    public ResponseEntity<BookingResponseDto> createBooking(SharerPrincipal principal,
                                                             @RequestBody BookingRequestDto bookingDto) {
-        return ResponseEntity.status(201).body(bookingService.createBooking(userId, bookingDto));
+        return ResponseEntity.status(201).body(bookingService.createBooking(principal.getUserId(), bookingDto));
+    }
+
+    /**
+     * Метод для пакетного создания бронирований
+     * @param principal   пользователь, создающий бронирования
+     * @param bookingDtos данные для создания бронирований
+     * @return результат по каждой записи (CREATED или REJECTED с причиной) и статус 200 (OK)
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<BookingBatchResultDto>> createBookings(SharerPrincipal principal,
+                                                                      @RequestBody List<BookingRequestDto> bookingDtos) {
+        return ResponseEntity.ok(bookingService.createBookings(principal.getUserId(), bookingDtos));
     }
 
     /**
      * Метод для подтверждения или отклонения бронирования
-     * @param userId    идентификатор пользователя (владельца вещи)
+     * @param principal пользователь (владелец вещи)
      * @param bookingId идентификатор бронирования
      * @param approved  флаг подтверждения (true - подтвердить, false - отклонить)
      * @return обновленная информация о бронировании
      */
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<BookingResponseDto> approveBooking(@RequestHeader(USER_ID_HEADER) Long userId,
+    public ResponseEntity<BookingResponseDto> approveBooking(SharerPrincipal principal,
                                                              @PathVariable Long bookingId,
                                                              @RequestParam boolean approved) {
-        return ResponseEntity.ok(bookingService.approveBooking(userId, bookingId, approved));
+        return ResponseEntity.ok(bookingService.approveBooking(principal.getUserId(), bookingId, approved));
+    }
+
+    /**
+     * Метод для пакетного подтверждения или отклонения бронирований владельцем
+     * @param principal пользователь (владелец вещей)
+     * @param decisions решения: идентификатор бронирования → true (подтвердить) или false (отклонить)
+     * @return идентификаторы применённых, пропущенных и запрещённых бронирований
+     */
+    @PatchMapping("/owner/decisions")
+    public ResponseEntity<BookingDecisionResultDto> decideBookings(SharerPrincipal principal,
+                                                                   @RequestBody Map<Long, Boolean> decisions) {
+        return ResponseEntity.ok(bookingService.decideBookings(principal.getUserId(), decisions));
     }
 
     /**
      * Метод для получения информации о бронировании по ID
-     * @param userId    идентификатор пользователя (владельца или автора бронирования)
+     * @param principal пользователь (владелец вещи или автор бронирования)
      * @param bookingId идентификатор бронирования
      * @return информация о бронировании или статус 404, если бронирование не найдено
      */
     @GetMapping("/{bookingId}")
-    public ResponseEntity<BookingResponseDto> getBooking(@RequestHeader(USER_ID_HEADER) Long userId,
+    public ResponseEntity<BookingResponseDto> getBooking(SharerPrincipal principal,
                                                          @PathVariable Long bookingId) {
-        return bookingService.getBooking(userId, bookingId)
+        return bookingService.getBooking(principal.getUserId(), bookingId)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     /**
-     * Метод для получения списка бронирований пользователя
-     * @param userId идентификатор пользователя
+     * Метод для получения страницы бронирований пользователя
+     * @param principal пользователь
      * @param state  состояние бронирований для фильтрации (ALL, CURRENT, PAST, FUTURE, WAITING, REJECTED)
-     * @return список бронирований пользователя
+     * @param from   смещение первой записи (используется только без курсора)
+     * @param size   размер страницы (по умолчанию 10, если передан from или cursor);
+     *               без from, size и cursor возвращаются все бронирования
+     * @param cursor курсор из заголовка X-Next-Cursor предыдущей страницы
+     * @param includeArchived добавлять ли архивные бронирования (для состояний PAST и ALL)
+     * @return страница бронирований пользователя; курсор следующей страницы передаётся в заголовке X-Next-Cursor
      */
     @GetMapping
-    public ResponseEntity<List<BookingResponseDto>> getBookings(@RequestHeader(USER_ID_HEADER) Long userId,
-                                                                @RequestParam(defaultValue = "ALL") String state) {
-        return ResponseEntity.ok(bookingService.getBookings(userId, state));
+    public ResponseEntity<List<BookingResponseDto>> getBookings(SharerPrincipal principal,
+                                                                @RequestParam(defaultValue = "ALL") String state,
+                                                                @RequestParam(required = false) Integer from,
+                                                                @RequestParam(required = false) Integer size,
+                                                                @RequestParam(required = false) String cursor,
+                                                                @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return toResponse(bookingService.getBookings(principal.getUserId(), state, from, size, cursor,
+                includeArchived));
     }
 
     /**
-     * Метод для получения списка бронирований владельца
-     * @param userId идентификатор пользователя-владельца вещей
+     * Метод для получения страницы бронирований владельца
+     * @param principal пользователь-владелец вещей
      * @param state  состояние бронирований для фильтрации (ALL, CURRENT, PAST, FUTURE, WAITING, REJECTED)
-     * @return список бронирований вещей, принадлежащих пользователю
+     * @param from   смещение первой записи (используется только без курсора)
+     * @param size   размер страницы (по умолчанию 10, если передан from или cursor);
+     *               без from, size и cursor возвращаются все бронирования
+     * @param cursor курсор из заголовка X-Next-Cursor предыдущей страницы
+     * @param includeArchived добавлять ли архивные бронирования (для состояний PAST и ALL)
+     * @return страница бронирований вещей, принадлежащих пользователю; курсор следующей страницы
+     *         передаётся в заголовке X-Next-Cursor
      */
     @GetMapping("/owner")
-    public ResponseEntity<List<BookingResponseDto>> getOwnerBookings(@RequestHeader(USER_ID_HEADER) Long userId,
-                                                                     @RequestParam(defaultValue = "ALL") String state) {
-        return ResponseEntity.ok(bookingService.getOwnerBookings(userId, state));
+    public ResponseEntity<List<BookingResponseDto>> getOwnerBookings(SharerPrincipal principal,
+                                                                     @RequestParam(defaultValue = "ALL") String state,
+                                                                     @RequestParam(required = false) Integer from,
+                                                                     @RequestParam(required = false) Integer size,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return toResponse(bookingService.getOwnerBookings(principal.requireExisting(), state, from, size, cursor,
+                includeArchived));
+    }
+
+    /**
+     * Метод для выгрузки всей истории бронирований пользователя в формате NDJSON
+     * @param principal пользователь
+     * @return поток бронирований, по одному JSON-объекту в строке (от новых к старым)
+     */
+    @GetMapping(path = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportBookings(SharerPrincipal principal) {
+        return toNdjson(bookingService.exportBookings(principal.requireExisting()));
+    }
+
+    /**
+     * Метод для выгрузки всей истории бронирований вещей владельца в формате NDJSON
+     * @param principal пользователь-владелец вещей
+     * @return поток бронирований, по одному JSON-объекту в строке (от новых к старым)
+     */
+    @GetMapping(path = "/owner/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportOwnerBookings(SharerPrincipal principal) {
+        return toNdjson(bookingService.exportOwnerBookings(principal.requireExisting()));
+    }
+
+    /**
+     * Формирует потоковый ответ NDJSON: бронирования пишутся в ответ по мере чтения из базы данных
+     * @param export выгрузка бронирований
+     * @return ответ со статусом 200
+     */
+    private ResponseEntity<StreamingResponseBody> toNdjson(BookingExport export) {
+        StreamingResponseBody body = out -> export.writeTo(booking -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(booking));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    /**
+     * Формирует ответ со страницей бронирований: тело — список, курсор следующей страницы — в заголовке
+     * @param page страница бронирований
+     * @return ответ со статусом 200
+     */
+    private ResponseEntity<List<BookingResponseDto>> toResponse(CursorPage<BookingResponseDto> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getContent());
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Даты последнего и ближайшего подтверждённого бронирования вещи.
+ */
+@Value
+@AllArgsConstructor
+public class BookingDates {
+    Long itemId;
+
+    /**
+     * Окончание последнего завершённого бронирования.
+     */
+    LocalDateTime lastBooking;
+
+    /**
+     * Начало ближайшего будущего бронирования.
+     */
+    LocalDateTime nextBooking;
+
+    /**
+     * Момент, после которого даты нужно пересчитать; null — даты не зависят от времени.
+     */
+    LocalDateTime refreshAt;
+
+    /**
+     * Даты, известные только по архиву: там есть лишь завершённые бронирования.
+     *
+     * @param itemId      идентификатор вещи
+     * @param lastBooking окончание последнего завершённого бронирования
+     */
+    public BookingDates(Long itemId, LocalDateTime lastBooking) {
+        this(itemId, lastBooking, null, null);
+    }
+}
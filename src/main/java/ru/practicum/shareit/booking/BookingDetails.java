@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Value;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+/**
+ * Бронирование вместе с вещью и автором, загруженные одним запросом.
+ */
+@Value
+public class BookingDetails {
+    Booking booking;
+    Item item;
+    User booker;
+}
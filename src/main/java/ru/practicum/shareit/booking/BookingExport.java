@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+
+import java.util.function.Consumer;
+
+/**
+ * Отложенная выгрузка истории бронирований.
+ * Параметры выгрузки проверяются при её создании, а строки читаются из базы данных только при вызове
+ * {@link #writeTo(Consumer)} — уже во время записи ответа.
+ */
+@FunctionalInterface
+public interface BookingExport {
+    /**
+     * Последовательно передаёт бронирования получателю.
+     *
+     * @param sink получатель бронирований
+     */
+    void writeTo(Consumer<BookingResponseDto> sink);
+}
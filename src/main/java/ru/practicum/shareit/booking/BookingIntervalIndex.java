@@ -0,0 +1,421 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.BoundedCache;
+import ru.practicum.shareit.cache.BoundedCacheMetrics;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Индекс интервалов бронирований по вещам.
+ * Для каждой вещи хранит отсортированную по началу шкалу интервалов [start, end) бронирований
+ * в статусах WAITING и APPROVED в виде массивов примитивных значений (миллисекунды epoch, UTC).
+ * Проверка пересечения выполняется бинарным поиском за O(log n) без обращения к базе данных;
+ * шкала вещи загружается из базы один раз при первом обращении и далее поддерживается
+ * при создании, подтверждении и отклонении бронирований.
+ * <p>
+ * Каждая шкала помнит версию вещи (@Version), для которой она построена. Любая запись бронирования
+ * увеличивает версию вещи, поэтому если другой узел изменил бронирования вещи, версия в базе
+ * не совпадёт с версией шкалы и шкала будет перезагружена перед проверкой.
+ * <p>
+ * Шкалы хранятся в {@link BoundedCache}: число вещей ограничено, давно не использованные шкалы вытесняются,
+ * метрики публикуются под именем кэша bookingTimelines. Закончившиеся бронирования в шкалу не попадают:
+ * при загрузке и при каждом добавлении горизонт шкалы сдвигается к текущему моменту, а интервалы,
+ * закончившиеся до него, удаляются. Проверки, затрагивающие время до горизонта (бронирование задним числом,
+ * календарь за прошедший период), выполняются запросом к базе.
+ */
+@Slf4j
+@Component
+public class BookingIntervalIndex {
+    static final String CACHE_NAME = "bookingTimelines";
+
+    /**
+     * Статусы бронирований, которые занимают вещь.
+     */
+    static final List<BookingStatus> BLOCKING_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+
+    /**
+     * Шкалы интервалов, ключ — идентификатор вещи.
+     */
+    private final BoundedCache<Long, ItemTimeline> timelines;
+
+    public BookingIntervalIndex(BookingRepository bookingRepository,
+                                @Value("${shareit.booking.timelines.max-size:10000}") int maxSize,
+                                @Value("${shareit.booking.timelines.ttl:PT30M}") Duration ttl,
+                                MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.timelines = new BoundedCache<>(maxSize, ttl);
+        BoundedCacheMetrics.monitor(timelines, CACHE_NAME, meterRegistry);
+    }
+
+    /**
+     * Проверяет пересечение по шкале, актуальной для указанной версии вещи.
+     * Если шкала построена для другой версии (вещь менялась на другом узле), она перезагружается из базы.
+     * Вызывается внутри транзакции, прочитавшей вещь с этой версией.
+     *
+     * @param itemId      идентификатор вещи
+     * @param itemVersion версия вещи, прочитанная в текущей транзакции
+     * @param start       начало интервала
+     * @param end         окончание интервала
+     * @return true, если интервал пересекается хотя бы с одним бронированием WAITING или APPROVED
+     */
+    public boolean overlaps(Long itemId, long itemVersion, LocalDateTime start, LocalDateTime end) {
+        long startMilli = toEpochMilli(start);
+        ItemTimeline timeline = timeline(itemId, itemVersion);
+        if (startMilli < timeline.horizon()) {
+            // Интервал начинается до горизонта шкалы: закончившиеся бронирования в ней уже не хранятся
+            return bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(itemId, BLOCKING_STATUSES,
+                    end, start);
+        }
+        return timeline.overlaps(startMilli, toEpochMilli(end));
+    }
+
+    /**
+     * Возвращает занятые окна вещи в диапазоне [from, to) по шкале, актуальной для указанной версии вещи.
+     * Пересекающиеся и смежные интервалы объединяются, окна обрезаются по границам диапазона.
+     *
+     * @param itemId      идентификатор вещи
+     * @param itemVersion текущая версия вещи в базе
+     * @param from        начало диапазона
+     * @param to          окончание диапазона
+     * @return занятые окна, отсортированные по началу
+     */
+    public List<BookingWindow> busyWindows(Long itemId, long itemVersion, LocalDateTime from, LocalDateTime to) {
+        long fromMilli = toEpochMilli(from);
+        ItemTimeline timeline = timeline(itemId, itemVersion);
+        if (fromMilli < timeline.horizon()) {
+            // Диапазон начинается до горизонта шкалы: окна строятся по бронированиям из базы
+            timeline = build(bookingRepository.findByItemIdAndStatusInAndStartBeforeAndEndAfter(itemId,
+                    BLOCKING_STATUSES, to, from), Long.MIN_VALUE);
+        }
+        List<long[]> windows = timeline.busyWindows(fromMilli, toEpochMilli(to));
+        List<BookingWindow> result = new ArrayList<>(windows.size());
+        for (long[] window : windows) {
+            result.add(new BookingWindow(fromEpochMilli(window[0]), fromEpochMilli(window[1])));
+        }
+        return result;
+    }
+
+    /**
+     * Добавляет закоммиченное бронирование в шкалу и отмечает её новой версией вещи.
+     * Если шкала ещё не загружена, ничего не делает: при загрузке бронирование будет прочитано из базы.
+     * Повторное добавление того же бронирования (шкала уже перезагружена после коммита) ничего не меняет.
+     * Перед добавлением из шкалы удаляются закончившиеся бронирования.
+     *
+     * @param booking     сохранённое бронирование
+     * @param itemVersion версия вещи после коммита транзакции, создавшей бронирование
+     */
+    public void add(Booking booking, long itemVersion) {
+        ItemTimeline timeline = timelines.get(booking.getItemId());
+        if (timeline != null) {
+            timeline.pruneEndedBefore(toEpochMilli(LocalDateTime.now()));
+            timeline.add(toEpochMilli(booking.getStart()), toEpochMilli(booking.getEnd()), booking.getId());
+            timeline.markVersion(itemVersion);
+        }
+    }
+
+    /**
+     * Сбрасывает шкалу вещи; при следующем обращении она будет загружена из базы.
+     *
+     * @param itemId идентификатор вещи
+     */
+    public void invalidate(Long itemId) {
+        timelines.invalidate(itemId);
+    }
+
+    /**
+     * Удаляет бронирование из шкалы его вещи (например, после отклонения).
+     *
+     * @param booking бронирование
+     */
+    public void remove(Booking booking) {
+        ItemTimeline timeline = timelines.get(booking.getItemId());
+        if (timeline != null) {
+            timeline.remove(booking.getId());
+        }
+    }
+
+    /**
+     * Возвращает шкалу вещи, актуальную для указанной версии.
+     * Если шкала не загружена или построена для другой версии (вещь менялась на другом узле),
+     * она загружается из базы данных.
+     *
+     * @param itemId      идентификатор вещи
+     * @param itemVersion версия вещи в базе
+     * @return шкала интервалов вещи
+     */
+    private ItemTimeline timeline(Long itemId, long itemVersion) {
+        ItemTimeline timeline = timelines.get(itemId);
+        if (timeline == null || timeline.version() != itemVersion) {
+            long generation = timelines.generation();
+            timeline = load(itemId, itemVersion);
+            timelines.put(itemId, timeline, generation);
+        }
+        return timeline;
+    }
+
+    /**
+     * Загружает шкалу вещи из базы данных: только бронирования, которые ещё не закончились.
+     *
+     * @param itemId      идентификатор вещи
+     * @param itemVersion версия вещи, для которой строится шкала
+     * @return новая шкала
+     */
+    private ItemTimeline load(Long itemId, long itemVersion) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> bookings = bookingRepository.findByItemIdAndStatusInAndEndAfter(itemId, BLOCKING_STATUSES, now);
+        ItemTimeline loaded = build(bookings, toEpochMilli(now));
+        loaded.markVersion(itemVersion);
+        log.debug("Loaded booking timeline for item {} (version {}): {} intervals", itemId, itemVersion,
+                bookings.size());
+        return loaded;
+    }
+
+    /**
+     * Строит шкалу по списку бронирований.
+     *
+     * @param bookings бронирования
+     * @param horizon  горизонт шкалы: интервалы, закончившиеся не позже него, не хранятся
+     * @return новая шкала
+     */
+    private static ItemTimeline build(List<Booking> bookings, long horizon) {
+        ItemTimeline timeline = new ItemTimeline(bookings.size(), horizon);
+        bookings.forEach(booking -> timeline.add(toEpochMilli(booking.getStart()), toEpochMilli(booking.getEnd()),
+                booking.getId()));
+        return timeline;
+    }
+
+    /**
+     * Переводит дату в миллисекунды epoch (UTC) для хранения в примитивных массивах.
+     *
+     * @param dateTime дата и время
+     * @return миллисекунды epoch
+     */
+    static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /**
+     * Переводит миллисекунды epoch (UTC) обратно в дату.
+     *
+     * @param epochMilli миллисекунды epoch
+     * @return дата и время
+     */
+    static LocalDateTime fromEpochMilli(long epochMilli) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneOffset.UTC);
+    }
+
+    /**
+     * Шкала интервалов одной вещи.
+     * Интервалы отсортированы по началу; дополнительно хранится префиксный максимум окончаний,
+     * поэтому проверка пересечения корректна, даже если в данных уже есть пересекающиеся интервалы.
+     */
+    static final class ItemTimeline {
+        /**
+         * Версия новой шкалы до отметки версией вещи.
+         */
+        static final long UNKNOWN_VERSION = -1;
+
+        private long[] starts;
+        private long[] ends;
+        private long[] bookingIds;
+        /**
+         * maxEnds[i] — максимальное окончание среди интервалов 0..i.
+         */
+        private long[] maxEnds;
+        private int size;
+        private long version = UNKNOWN_VERSION;
+        /**
+         * Интервалы, закончившиеся не позже горизонта, из шкалы удалены.
+         */
+        private long horizon;
+
+        ItemTimeline(int capacity, long horizon) {
+            this.horizon = horizon;
+            int initial = Math.max(capacity, 4);
+            starts = new long[initial];
+            ends = new long[initial];
+            bookingIds = new long[initial];
+            maxEnds = new long[initial];
+        }
+
+        synchronized long version() {
+            return version;
+        }
+
+        synchronized long horizon() {
+            return horizon;
+        }
+
+        /**
+         * Отмечает шкалу версией вещи. Версии в базе только растут, поэтому более старая версия
+         * (например, от коммита, после которого шкала уже перезагружена) не заменяет более новую.
+         */
+        synchronized void markVersion(long version) {
+            this.version = Math.max(this.version, version);
+        }
+
+        /**
+         * Проверяет пересечение интервала [start, end) с интервалами шкалы.
+         * Находит последний интервал, начинающийся раньше end, и сравнивает максимум окончаний до него со start.
+         */
+        synchronized boolean overlaps(long start, long end) {
+            int before = lowerBound(end) - 1;
+            return before >= 0 && maxEnds[before] > start;
+        }
+
+        /**
+         * Собирает объединённые занятые окна в диапазоне [from, to).
+         * Первый кандидат находится бинарным поиском по префиксному максимуму окончаний,
+         * далее просматриваются только интервалы, начинающиеся раньше to: O(log n + k).
+         */
+        synchronized List<long[]> busyWindows(long from, long to) {
+            List<long[]> windows = new ArrayList<>();
+            long[] current = null;
+            for (int i = firstEndingAfter(from); i < size && starts[i] < to; i++) {
+                if (ends[i] <= from) {
+                    continue;
+                }
+                long start = Math.max(starts[i], from);
+                long end = Math.min(ends[i], to);
+                if (current != null && start <= current[1]) {
+                    current[1] = Math.max(current[1], end);
+                } else {
+                    current = new long[]{start, end};
+                    windows.add(current);
+                }
+            }
+            return windows;
+        }
+
+        /**
+         * Вставляет интервал бронирования, сохраняя порядок по началу.
+         * Если бронирование с таким идентификатором и началом уже есть в шкале или интервал закончился
+         * не позже горизонта, вставка не выполняется.
+         */
+        synchronized void add(long start, long end, long bookingId) {
+            if (end <= horizon) {
+                return;
+            }
+            for (int i = lowerBound(start); i < size && starts[i] == start; i++) {
+                if (bookingIds[i] == bookingId) {
+                    return;
+                }
+            }
+            if (size == starts.length) {
+                int capacity = size * 2;
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                bookingIds = Arrays.copyOf(bookingIds, capacity);
+                maxEnds = Arrays.copyOf(maxEnds, capacity);
+            }
+            int position = lowerBound(start);
+            int tail = size - position;
+            System.arraycopy(starts, position, starts, position + 1, tail);
+            System.arraycopy(ends, position, ends, position + 1, tail);
+            System.arraycopy(bookingIds, position, bookingIds, position + 1, tail);
+            starts[position] = start;
+            ends[position] = end;
+            bookingIds[position] = bookingId;
+            size++;
+            recomputeMaxEnds(position);
+        }
+
+        /**
+         * Удаляет все интервалы бронирования с указанным идентификатором, сохраняя порядок остальных.
+         */
+        synchronized void remove(long bookingId) {
+            removeWhere(i -> bookingIds[i] == bookingId);
+        }
+
+        /**
+         * Сдвигает горизонт шкалы к указанному моменту и удаляет интервалы, закончившиеся не позже него.
+         */
+        synchronized void pruneEndedBefore(long moment) {
+            if (moment <= horizon) {
+                return;
+            }
+            horizon = moment;
+            removeWhere(i -> ends[i] <= moment);
+        }
+
+        /**
+         * Удаляет интервалы, индексы которых удовлетворяют условию, сохраняя порядок остальных.
+         */
+        private void removeWhere(IntPredicate condition) {
+            int kept = 0;
+            int firstRemoved = -1;
+            for (int i = 0; i < size; i++) {
+                if (condition.test(i)) {
+                    if (firstRemoved < 0) {
+                        firstRemoved = i;
+                    }
+                    continue;
+                }
+                starts[kept] = starts[i];
+                ends[kept] = ends[i];
+                bookingIds[kept] = bookingIds[i];
+                kept++;
+            }
+            if (firstRemoved >= 0) {
+                size = kept;
+                recomputeMaxEnds(firstRemoved);
+            }
+        }
+
+        /**
+         * Индекс первого интервала, начало которого не меньше value.
+         */
+        private int lowerBound(long value) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle] < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Индекс первого интервала, для которого максимум окончаний до него включительно больше value.
+         * Все интервалы левее заканчиваются не позже value и не могут попасть в диапазон.
+         */
+        private int firstEndingAfter(long value) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (maxEnds[middle] <= value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private void recomputeMaxEnds(int from) {
+            long max = from > 0 ? maxEnds[from - 1] : Long.MIN_VALUE;
+            for (int i = from; i < size; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnds[i] = max;
+            }
+        }
+    }
+}
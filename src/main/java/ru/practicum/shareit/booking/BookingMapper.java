@@ -51,4 +51,21 @@ public class BookingMapper {
         booking.setItemId(bookingDto.getItemId());
         return booking;
     }
-}
\ No newline at end of file
+
+    /**
+     * Преобразует архивное бронирование в сущность Booking (только для чтения и построения ответа).
+     * @param archived архивное бронирование
+     * @return объект Booking с данными архивного бронирования
+     */
+    public static Booking toBooking(ArchivedBooking archived) {
+        Booking booking = new Booking();
+        booking.setId(archived.getId());
+        booking.setStart(archived.getStart());
+        booking.setEnd(archived.getEnd());
+        booking.setItemId(archived.getItemId());
+        booking.setBookerId(archived.getBookerId());
+        booking.setStatus(archived.getStatus());
+        booking.setVersion(archived.getVersion());
+        return booking;
+    }
+}
@@ -1,15 +1,407 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.LockOptions;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Репозиторий для работы с сущностями бронирований.
  * Предоставляет методы для выполнения CRUD-операций с объектами Booking.
  * Расширяет JpaRepository, что автоматически обеспечивает базовые методы
  * для работы с данными, такие как findAll(), findById(), save(), delete() и др.
+ * <p>
+ * Выборки списков используют keyset-пагинацию по паре (start_date, id): страница начинается
+ * после курсора (cursorStart, cursorId) и отсортирована по убыванию, поэтому вместе с индексами
+ * (booker_id / item_id, start_date DESC, id DESC) стоимость любой страницы одинакова.
  *
  * @see Booking
  * @see org.springframework.data.jpa.repository.JpaRepository
  */
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-}
\ No newline at end of file
+    /**
+     * Количество строк, получаемых из курсора базы данных за одно обращение при выгрузке.
+     */
+    int EXPORT_FETCH_SIZE = 500;
+
+    /**
+     * Все бронирования пользователя (state = ALL).
+     *
+     * @param bookerId    идентификатор автора бронирований
+     * @param cursorStart дата начала последнего бронирования предыдущей страницы
+     * @param cursorId    идентификатор последнего бронирования предыдущей страницы
+     * @param page        размер страницы (и смещение, если курсор не передан)
+     * @return бронирования, отсортированные по дате начала и id (от новых к старым)
+     */
+    @Query("select b from Booking b " +
+            "where b.bookerId = :bookerId " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findBookerBookings(@Param("bookerId") Long bookerId,
+                                     @Param("cursorStart") LocalDateTime cursorStart,
+                                     @Param("cursorId") Long cursorId,
+                                     Pageable page);
+
+    /**
+     * Текущие бронирования пользователя (state = CURRENT): start < now < end.
+     *
+     * @param bookerId    идентификатор автора бронирований
+     * @param now         текущий момент времени
+     * @param cursorStart дата начала последнего бронирования предыдущей страницы
+     * @param cursorId    идентификатор последнего бронирования предыдущей страницы
+     * @param page        размер страницы (и смещение, если курсор не передан)
+     * @return бронирования, отсортированные по дате начала и id (от новых к старым)
+     */
+    @Query("select b from Booking b " +
+            "where b.bookerId = :bookerId and b.start < :now and b.end > :now " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findBookerCurrentBookings(@Param("bookerId") Long bookerId,
+                                            @Param("now") LocalDateTime now,
+                                            @Param("cursorStart") LocalDateTime cursorStart,
+                                            @Param("cursorId") Long cursorId,
+                                            Pageable page);
+
+    /**
+     * Завершённые бронирования пользователя (state = PAST): end < now.
+     *
+     * @param bookerId    идентификатор автора бронирований
+     * @param now         текущий момент времени
+     * @param cursorStart дата начала последнего бронирования предыдущей страницы
+     * @param cursorId    идентификатор последнего бронирования предыдущей страницы
+     * @param page        размер страницы (и смещение, если курсор не передан)
+     * @return бронирования, отсортированные по дате начала и id (от новых к старым)
+     */
+    @Query("select b from Booking b " +
+            "where b.bookerId = :bookerId and b.end < :now " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findBookerPastBookings(@Param("bookerId") Long bookerId,
+                                         @Param("now") LocalDateTime now,
+                                         @Param("cursorStart") LocalDateTime cursorStart,
+                                         @Param("cursorId") Long cursorId,
+                                         Pageable page);
+
+    /**
+     * Будущие бронирования пользователя (state = FUTURE): start > now.
+     *
+     * @param bookerId    идентификатор автора бронирований
+     * @param now         текущий момент времени
+     * @param cursorStart дата начала последнего бронирования предыдущей страницы
+     * @param cursorId    идентификатор последнего бронирования предыдущей страницы
+     * @param page        размер страницы (и смещение, если курсор не передан)
+     * @return бронирования, отсортированные по дате начала и id (от новых к старым)
+     */
+    @Query("select b from Booking b " +
+            "where b.bookerId = :bookerId and b.start > :now " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findBookerFutureBookings(@Param("bookerId") Long bookerId,
+                                           @Param("now") LocalDateTime now,
+                                           @Param("cursorStart") LocalDateTime cursorStart,
+                                           @Param("cursorId") Long cursorId,
+                                           Pageable page);
+
+    /**
+     * Бронирования пользователя с указанным статусом (state = WAITING / REJECTED).
+     *
+     * @param bookerId    идентификатор автора бронирований
+     * @param status      статус бронирования
+     * @param cursorStart дата начала последнего бронирования предыдущей страницы
+     * @param cursorId    идентификатор последнего бронирования предыдущей страницы
+     * @param page        размер страницы (и смещение, если курсор не передан)
+     * @return бронирования, отсортированные по дате начала и id (от новых к старым)
+     */
+    @Query("select b from Booking b " +
+            "where b.bookerId = :bookerId and b.status = :status " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findBookerBookingsByStatus(@Param("bookerId") Long bookerId,
+                                             @Param("status") BookingStatus status,
+                                             @Param("cursorStart") LocalDateTime cursorStart,
+                                             @Param("cursorId") Long cursorId,
+                                             Pageable page);
+
+    /**
+     * Все бронирования вещей владельца (state = ALL).
+     * Бронирования соединяются с вещами по item_id, фильтр по владельцу выполняется в базе данных.
+     *
+     * @param ownerId     идентификатор владельца вещей
+     * @param cursorStart дата начала последнего бронирования предыдущей страницы
+     * @param cursorId    идентификатор последнего бронирования предыдущей страницы
+     * @param page        размер страницы (и смещение, если курсор не передан)
+     * @return бронирования, отсортированные по дате начала и id (от новых к старым)
+     */
+    @Query("select b from Booking b join Item i on i.id = b.itemId " +
+            "where i.ownerId = :ownerId " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findOwnerBookings(@Param("ownerId") Long ownerId,
+                                    @Param("cursorStart") LocalDateTime cursorStart,
+                                    @Param("cursorId") Long cursorId,
+                                    Pageable page);
+
+    /**
+     * Текущие бронирования вещей владельца (state = CURRENT): start < now < end.
+     *
+     * @param ownerId     идентификатор владельца вещей
+     * @param now         текущий момент времени
+     * @param cursorStart дата начала последнего бронирования предыдущей страницы
+     * @param cursorId    идентификатор последнего бронирования предыдущей страницы
+     * @param page        размер страницы (и смещение, если курсор не передан)
+     * @return бронирования, отсортированные по дате начала и id (от новых к старым)
+     */
+    @Query("select b from Booking b join Item i on i.id = b.itemId " +
+            "where i.ownerId = :ownerId and b.start < :now and b.end > :now " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findOwnerCurrentBookings(@Param("ownerId") Long ownerId,
+                                           @Param("now") LocalDateTime now,
+                                           @Param("cursorStart") LocalDateTime cursorStart,
+                                           @Param("cursorId") Long cursorId,
+                                           Pageable page);
+
+    /**
+     * Завершённые бронирования вещей владельца (state = PAST): end < now.
+     *
+     * @param ownerId     идентификатор владельца вещей
+     * @param now         текущий момент времени
+     * @param cursorStart дата начала последнего бронирования предыдущей страницы
+     * @param cursorId    идентификатор последнего бронирования предыдущей страницы
+     * @param page        размер страницы (и смещение, если курсор не передан)
+     * @return бронирования, отсортированные по дате начала и id (от новых к старым)
+     */
+    @Query("select b from Booking b join Item i on i.id = b.itemId " +
+            "where i.ownerId = :ownerId and b.end < :now " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findOwnerPastBookings(@Param("ownerId") Long ownerId,
+                                        @Param("now") LocalDateTime now,
+                                        @Param("cursorStart") LocalDateTime cursorStart,
+                                        @Param("cursorId") Long cursorId,
+                                        Pageable page);
+
+    /**
+     * Будущие бронирования вещей владельца (state = FUTURE): start > now.
+     *
+     * @param ownerId     идентификатор владельца вещей
+     * @param now         текущий момент времени
+     * @param cursorStart дата начала последнего бронирования предыдущей страницы
+     * @param cursorId    идентификатор последнего бронирования предыдущей страницы
+     * @param page        размер страницы (и смещение, если курсор не передан)
+     * @return бронирования, отсортированные по дате начала и id (от новых к старым)
+     */
+    @Query("select b from Booking b join Item i on i.id = b.itemId " +
+            "where i.ownerId = :ownerId and b.start > :now " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findOwnerFutureBookings(@Param("ownerId") Long ownerId,
+                                          @Param("now") LocalDateTime now,
+                                          @Param("cursorStart") LocalDateTime cursorStart,
+                                          @Param("cursorId") Long cursorId,
+                                          Pageable page);
+
+    /**
+     * Бронирования вещей владельца с указанным статусом (state = WAITING / REJECTED).
+     *
+     * @param ownerId     идентификатор владельца вещей
+     * @param status      статус бронирования
+     * @param cursorStart дата начала последнего бронирования предыдущей страницы
+     * @param cursorId    идентификатор последнего бронирования предыдущей страницы
+     * @param page        размер страницы (и смещение, если курсор не передан)
+     * @return бронирования, отсортированные по дате начала и id (от новых к старым)
+     */
+    @Query("select b from Booking b join Item i on i.id = b.itemId " +
+            "where i.ownerId = :ownerId and b.status = :status " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findOwnerBookingsByStatus(@Param("ownerId") Long ownerId,
+                                            @Param("status") BookingStatus status,
+                                            @Param("cursorStart") LocalDateTime cursorStart,
+                                            @Param("cursorId") Long cursorId,
+                                            Pageable page);
+
+    /**
+     * Бронирование вместе с вещью и автором одним запросом.
+     *
+     * @param id идентификатор бронирования
+     * @return бронирование, его вещь и автор, если бронирование найдено
+     */
+    @Query("select new ru.practicum.shareit.booking.BookingDetails(b, i, u) from Booking b " +
+            "join Item i on i.id = b.itemId " +
+            "join User u on u.id = b.bookerId " +
+            "where b.id = :id")
+    Optional<BookingDetails> findDetailsById(@Param("id") Long id);
+
+    /**
+     * Потоковое чтение всех бронирований пользователя для выгрузки.
+     * Строки читаются курсором базы данных порциями по {@value #EXPORT_FETCH_SIZE}, поэтому память
+     * не зависит от длины истории. Поток должен потребляться и закрываться внутри транзакции.
+     *
+     * @param bookerId идентификатор автора бронирований
+     * @return поток бронирований, отсортированных по дате начала и id (от новых к старым)
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select b from Booking b where b.bookerId = :bookerId order by b.start desc, b.id desc")
+    Stream<Booking> streamBookerBookings(@Param("bookerId") Long bookerId);
+
+    /**
+     * Потоковое чтение всех бронирований вещей владельца для выгрузки.
+     * Поток должен потребляться и закрываться внутри транзакции.
+     *
+     * @param ownerId идентификатор владельца вещей
+     * @return поток бронирований, отсортированных по дате начала и id (от новых к старым)
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select b from Booking b join Item i on i.id = b.itemId " +
+            "where i.ownerId = :ownerId order by b.start desc, b.id desc")
+    Stream<Booking> streamOwnerBookings(@Param("ownerId") Long ownerId);
+
+    /**
+     * Даты последнего и ближайшего подтверждённого бронирования для набора вещей одним запросом.
+     * Момент пересчёта — минимум из начала будущих и окончания текущих бронирований.
+     * Вещи без подтверждённых бронирований в результат не попадают.
+     *
+     * @param itemIds идентификаторы вещей
+     * @param now     текущий момент времени
+     * @return даты по вещам
+     */
+    @Query("select new ru.practicum.shareit.booking.BookingDates(b.itemId, " +
+            "max(case when b.end < :now then b.end else null end), " +
+            "min(case when b.start > :now then b.start else null end), " +
+            "min(case when b.start > :now then b.start when b.end >= :now then b.end else null end)) " +
+            "from Booking b " +
+            "where b.itemId in :itemIds and b.status = ru.practicum.shareit.booking.BookingStatus.APPROVED " +
+            "group by b.itemId")
+    List<BookingDates> findApprovedBookingDates(@Param("itemIds") Collection<Long> itemIds,
+                                                @Param("now") LocalDateTime now);
+
+    /**
+     * Проверка, что у пользователя есть бронирование вещи в указанном статусе, закончившееся до указанного момента.
+     *
+     * @param itemId   идентификатор вещи
+     * @param bookerId идентификатор автора бронирования
+     * @param status   статус бронирования
+     * @param end      момент, до которого бронирование должно закончиться
+     * @return true, если такое бронирование есть
+     */
+    boolean existsByItemIdAndBookerIdAndStatusAndEndBefore(Long itemId, Long bookerId, BookingStatus status,
+                                                           LocalDateTime end);
+
+    /**
+     * Бронирования вещи с указанными статусами, заканчивающиеся позже указанного момента.
+     *
+     * @param itemId    идентификатор вещи
+     * @param statuses  допустимые статусы
+     * @param threshold момент, после которого бронирование должно закончиться
+     * @return бронирования вещи
+     */
+    List<Booking> findByItemIdAndStatusInAndEndAfter(Long itemId, Collection<BookingStatus> statuses,
+                                                     LocalDateTime threshold);
+
+    /**
+     * Бронирования вещи с указанными статусами, пересекающиеся с интервалом [from, to).
+     *
+     * @param itemId   идентификатор вещи
+     * @param statuses допустимые статусы
+     * @param to       окончание интервала (бронирование должно начаться раньше)
+     * @param from     начало интервала (бронирование должно закончиться позже)
+     * @return бронирования вещи
+     */
+    List<Booking> findByItemIdAndStatusInAndStartBeforeAndEndAfter(Long itemId, Collection<BookingStatus> statuses,
+                                                                   LocalDateTime to, LocalDateTime from);
+
+    /**
+     * Есть ли у вещи бронирование с указанными статусами, пересекающееся с интервалом [from, to).
+     *
+     * @param itemId   идентификатор вещи
+     * @param statuses допустимые статусы
+     * @param to       окончание интервала (бронирование должно начаться раньше)
+     * @param from     начало интервала (бронирование должно закончиться позже)
+     * @return true, если такое бронирование есть
+     */
+    boolean existsByItemIdAndStatusInAndStartBeforeAndEndAfter(Long itemId, Collection<BookingStatus> statuses,
+                                                               LocalDateTime to, LocalDateTime from);
+
+    /**
+     * Переводит бронирования из статуса WAITING в указанный статус одним запросом.
+     * Обновляются только бронирования вещей указанного владельца; версия бронирований увеличивается.
+     *
+     * @param ids     идентификаторы бронирований
+     * @param ownerId идентификатор владельца вещей
+     * @param status  новый статус
+     * @return количество обновлённых бронирований
+     */
+    @Modifying
+    @Query("update Booking b set b.status = :status, b.version = b.version + 1 " +
+            "where b.id in :ids and b.status = ru.practicum.shareit.booking.BookingStatus.WAITING " +
+            "and b.itemId in (select i.id from Item i where i.ownerId = :ownerId)")
+    int updateWaitingStatus(@Param("ids") Collection<Long> ids,
+                            @Param("ownerId") Long ownerId,
+                            @Param("status") BookingStatus status);
+
+    /**
+     * Применяет пакет решений владельца одним запросом: бронирования из approveIds переводятся
+     * из WAITING в APPROVED, остальные из ids — из WAITING в REJECTED.
+     * Обновляются только бронирования вещей указанного владельца; версия бронирований увеличивается.
+     *
+     * @param ids        идентификаторы всех бронирований пакета
+     * @param approveIds идентификаторы подтверждаемых бронирований (непустое подмножество ids)
+     * @param ownerId    идентификатор владельца вещей
+     * @return количество обновлённых бронирований
+     */
+    @Modifying
+    @Query("update Booking b set b.status = case when b.id in :approveIds " +
+            "then ru.practicum.shareit.booking.BookingStatus.APPROVED " +
+            "else ru.practicum.shareit.booking.BookingStatus.REJECTED end, b.version = b.version + 1 " +
+            "where b.id in :ids and b.status = ru.practicum.shareit.booking.BookingStatus.WAITING " +
+            "and b.itemId in (select i.id from Item i where i.ownerId = :ownerId)")
+    int decideWaiting(@Param("ids") Collection<Long> ids,
+                      @Param("approveIds") Collection<Long> approveIds,
+                      @Param("ownerId") Long ownerId);
+
+    /**
+     * Бронирования, закончившиеся раньше указанного момента, с блокировкой строк до конца транзакции.
+     * Используется архиватором для выбора очередной порции. Строки, уже заблокированные другой транзакцией
+     * (например, архиватором на соседнем узле), пропускаются (SKIP LOCKED), поэтому узлы разбирают
+     * разные порции, а не ждут друг друга.
+     *
+     * @param threshold граница окончания бронирования
+     * @param page      размер порции
+     * @return бронирования, отсортированные по id
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "" + LockOptions.SKIP_LOCKED))
+    @Query("select b from Booking b where b.end < :threshold order by b.id")
+    List<Booking> findEndedBefore(@Param("threshold") LocalDateTime threshold, Pageable page);
+
+    /**
+     * Удаляет бронирования одним запросом.
+     *
+     * @param ids идентификаторы бронирований
+     * @return количество удалённых бронирований
+     */
+    @Modifying
+    @Query("delete from Booking b where b.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+}
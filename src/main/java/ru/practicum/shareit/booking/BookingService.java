@@ -1,9 +1,16 @@
 package ru.practicum.shareit.booking;
 
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.CursorPage;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 
@@ -12,19 +19,47 @@ public interface BookingService {
     // Создает новое бронирование.
     BookingResponseDto createBooking(Long userId, BookingRequestDto bookingDto);
 
+    // Создает пакет бронирований одного пользователя и возвращает результат по каждой записи.
+    List<BookingBatchResultDto> createBookings(Long userId, List<BookingRequestDto> bookingDtos);
+
     // Подтверждает или отклоняет бронирование.
     BookingResponseDto approveBooking(Long userId, Long bookingId, boolean approved);
 
+    // Применяет пакет решений владельца (подтвердить/отклонить) по бронированиям.
+    BookingDecisionResultDto decideBookings(Long userId, Map<Long, Boolean> decisions);
+
     // Получает информацию о бронировании по его идентификатору.
 
     Optional<BookingResponseDto> getBooking(Long userId, Long bookingId);
 
-    // Получает список бронирований пользователя.
-    List<BookingResponseDto> getBookings(Long userId, String state);
+    // Получает страницу бронирований пользователя (keyset-пагинация по курсору), при необходимости вместе с архивом.
+    // Без from, size и курсора возвращает все бронирования.
+    CursorPage<BookingResponseDto> getBookings(Long userId, String state, Integer from, Integer size,
+                                               String cursor, boolean includeArchived);
+
+    // Получает страницу бронирований для вещей, принадлежащих пользователю (keyset-пагинация по курсору),
+    // при необходимости вместе с архивом. Без from, size и курсора возвращает все бронирования.
+    // Существование пользователя проверяет вызывающий (SharerPrincipal.requireExisting).
+    CursorPage<BookingResponseDto> getOwnerBookings(Long userId, String state, Integer from, Integer size,
+                                                    String cursor, boolean includeArchived);
+
+    // Готовит потоковую выгрузку всей истории бронирований пользователя (существование пользователя проверяет
+    // вызывающий).
+    BookingExport exportBookings(Long userId);
+
+    // Готовит потоковую выгрузку всей истории бронирований вещей владельца (существование пользователя проверяет
+    // вызывающий).
+    BookingExport exportOwnerBookings(Long userId);
+
+    // Проверяет, что пользователь завершил подтверждённую аренду вещи.
+    boolean hasCompletedRental(Long userId, Long itemId);
+
+    // Получает даты последнего и ближайшего подтверждённого бронирования вещи.
+    BookingDates getBookingDates(Item item);
 
-    // Получает список бронирований для вещей, принадлежащих пользователю.
-    List<BookingResponseDto> getOwnerBookings(Long userId, String state);
+    // Получает даты последнего и ближайшего подтверждённого бронирования для набора вещей (по ID вещи).
+    Map<Long, BookingDates> getBookingDates(Collection<Item> items);
 
-    // Получает список бронирований для конкретной вещи.
-    List<BookingResponseDto> getBookingsForItem(Long itemId);
+    // Получает занятые окна вещи (бронирования WAITING и APPROVED) в диапазоне [from, to).
+    List<BookingWindow> getBusyWindows(Long itemId, LocalDateTime from, LocalDateTime to);
 }
\ No newline at end of file
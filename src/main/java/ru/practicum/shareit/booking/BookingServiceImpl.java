@@ -1,35 +1,93 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.exception.*;
+import ru.practicum.shareit.item.ItemCache;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.model.ItemRepository;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserCache;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Класс BookingServiceImpl реализует интерфейс BookingService и предоставляет бизнес-логику
  * для управления бронированиями (создание, утверждение, получение списка и т.д.).
  * Использует Spring Data JPA для взаимодействия с базой данных.
  */
+@Slf4j
 @Service // Аннотация указывает Spring, что этот класс является сервисом
 @RequiredArgsConstructor // Lombok аннотация для создания конструктора с обязательными полями
 public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository; // Репозиторий для работы с сущностями бронирований
     private final UserRepository userRepository; // Репозиторий для проверки существования пользователей
     private final ItemRepository itemRepository; // Репозиторий для проверки существования вещей и владельцев
+    private final BookingIntervalIndex intervalIndex; // Индекс занятых интервалов вещей для проверки пересечений
+    private final ItemLockStripes lockStripes; // Блокировки записи бронирований по вещам внутри узла
+    private final TransactionTemplate transactionTemplate; // Границы транзакций записи бронирований
+    private final BookingBatchInserter batchInserter; // Пакетная JDBC-вставка бронирований
+    private final EntityManager entityManager; // Контекст персистентности, очищается между порциями выгрузки
+    private final ArchivedBookingRepository archivedBookingRepository; // Архив завершённых бронирований
+    private final ItemBookingDatesMaintainer datesMaintainer; // Материализованные даты бронирований вещей
+    private final ItemCache itemCache; // Кэш вещей для чтения
+    private final UserCache userCache; // Кэш пользователей для чтения
+    private final CompletedRentalCache completedRentals; // Кэш завершённых аренд (право на комментарий)
+
+    /**
+     * Максимальное количество попыток записи бронирования при конфликте версий вещи.
+     */
+    static final int MAX_WRITE_ATTEMPTS = 3;
+
+    /**
+     * Максимальное количество записей в пакете бронирований.
+     */
+    static final int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * Состояния, для которых по запросу добавляются архивные бронирования (архив содержит только завершённые).
+     */
+    private static final Set<String> ARCHIVED_STATES = Set.of("PAST", "ALL");
 
     /**
      * Создает новое бронирование для указанного пользователя и вещи.
      * Проверяет корректность дат, доступность вещи и права пользователя.
+     * <p>
+     * Запись бронирований одной вещи сериализуется: внутри узла — полосатой блокировкой по ID вещи,
+     * между узлами — принудительным увеличением версии вещи при коммите. Если другой узел успел
+     * изменить бронирования вещи, транзакция откатывается и повторяется (не более {@value #MAX_WRITE_ATTEMPTS} раз).
      * @param userId     ID пользователя, создающего бронирование
      * @param bookingDto DTO с данными для создания бронирования
      * @return DTO с информацией о созданном бронировании
@@ -38,85 +96,402 @@ public class BookingServiceImpl implements BookingService {
      * @throws UserNotFoundException     если пользователь не найден
      * @throws NotAvailableException     если вещь недоступна для бронирования
      * @throws OwnerCannotBookException  если пользователь пытается забронировать свою вещь
+     * @throws BookingOverlapException   если интервал пересекается с бронированием WAITING или APPROVED
+     * @throws ConflictException         если конфликт версий не удалось разрешить повторными попытками
      */
     @Override
     public BookingResponseDto createBooking(Long userId, BookingRequestDto bookingDto) {
+        validateRequest(bookingDto);
+
+        User booker = userCache.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException(String.format("Пользователь с ID %d не найден при создании " +
+                        "бронирования", userId)));
+
+        Lock lock = lockStripes.forItem(bookingDto.getItemId());
+        lock.lock();
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    WrittenBooking written = transactionTemplate.execute(status -> insertBooking(userId, bookingDto));
+                    // Шкала обновляется только после коммита, версия вещи к этому моменту уже увеличена
+                    intervalIndex.add(written.booking(), written.itemVersion());
+                    return BookingMapper.toBookingResponseDto(written.booking(), written.item(), booker);
+                } catch (OptimisticLockingFailureException e) {
+                    // Бронирования вещи изменил другой узел: локальная шкала устарела
+                    intervalIndex.invalidate(bookingDto.getItemId());
+                    if (attempt >= MAX_WRITE_ATTEMPTS) {
+                        throw new ConflictException(String.format("Не удалось забронировать вещь с ID %d: " +
+                                "конкурирующие изменения, попробуйте позже", bookingDto.getItemId()));
+                    }
+                    log.debug("Version conflict on item {}, attempt {} of {}", bookingDto.getItemId(), attempt,
+                            MAX_WRITE_ATTEMPTS);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Проверяет вещь и сохраняет бронирование в рамках одной транзакции.
+     * Вещь читается с принудительным увеличением версии, поэтому коммит завершится ошибкой,
+     * если за время транзакции бронирования вещи изменил кто-то ещё.
+     * @param userId     ID пользователя, создающего бронирование
+     * @param bookingDto DTO с данными для создания бронирования
+     * @return сохранённое бронирование, вещь и версия вещи после коммита
+     */
+    private WrittenBooking insertBooking(Long userId, BookingRequestDto bookingDto) {
+        Item item = itemRepository.findForBooking(bookingDto.getItemId())
+                .orElseThrow(() -> new ItemNotFoundException(String.format("Вещь с ID %d не найдена при создании " +
+                        "бронирования", bookingDto.getItemId())));
+
+        validateItem(userId, item);
+        if (intervalIndex.overlaps(item.getId(), item.getVersion(), bookingDto.getStart(), bookingDto.getEnd())) {
+            throw new BookingOverlapException(String.format("Вещь с ID %d уже забронирована на период с %s по %s",
+                    bookingDto.getItemId(), bookingDto.getStart(), bookingDto.getEnd()));
+        }
+
+        Booking booking = BookingMapper.toBooking(bookingDto);
+        booking.setBookerId(userId);
+        booking.setStatus(BookingStatus.WAITING);
+        Booking savedBooking = bookingRepository.save(booking);
+        return new WrittenBooking(savedBooking, item, item.getVersion() + 1);
+    }
+
+    /**
+     * Создает пакет бронирований одного пользователя.
+     * Пользователь и все вещи пакета загружаются одним запросом на таблицу, записи проверяются в памяти
+     * (в том числе на пересечение друг с другом), а прошедшие проверку вставляются одним JDBC-батчем
+     * в одной транзакции. Записи, не прошедшие проверку (в том числе пустые записи и записи без дат),
+     * не мешают остальным и возвращаются с причиной отказа.
+     * @param userId      ID пользователя, создающего бронирования
+     * @param bookingDtos DTO с данными бронирований
+     * @return результаты по каждой записи в порядке входного списка
+     * @throws IllegalArgumentException если пакет пуст или превышает {@value #MAX_BATCH_SIZE} записей
+     * @throws UserNotFoundException    если пользователь не найден
+     * @throws ConflictException        если конфликт версий не удалось разрешить повторными попытками
+     */
+    @Override
+    public List<BookingBatchResultDto> createBookings(Long userId, List<BookingRequestDto> bookingDtos) {
+        if (bookingDtos.isEmpty()) {
+            throw new IllegalArgumentException("Пакет бронирований не может быть пустым");
+        }
+        if (bookingDtos.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(String.format("Пакет бронирований не может содержать более %d записей",
+                    MAX_BATCH_SIZE));
+        }
+        User booker = userCache.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException(String.format("Пользователь с ID %d не найден " +
+                        "при создании бронирований", userId)));
+        Set<Long> itemIds = bookingDtos.stream()
+                .filter(Objects::nonNull)
+                .map(BookingRequestDto::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        List<Lock> locks = lockStripes.forItems(itemIds);
+        locks.forEach(Lock::lock);
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    WrittenBatch written = transactionTemplate.execute(status ->
+                            insertBookings(userId, bookingDtos, itemIds));
+                    written.accepted().forEach(booking -> intervalIndex.add(booking,
+                            written.itemVersions().get(booking.getItemId())));
+                    written.accepted().forEach(booking -> written.results().get(written.positions().get(booking))
+                            .setBooking(BookingMapper.toBookingResponseDto(booking,
+                                    written.items().get(booking.getItemId()), booker)));
+                    return written.results();
+                } catch (OptimisticLockingFailureException e) {
+                    itemIds.forEach(intervalIndex::invalidate);
+                    if (attempt >= MAX_WRITE_ATTEMPTS) {
+                        throw new ConflictException("Не удалось создать пакет бронирований: конкурирующие изменения, " +
+                                "попробуйте позже");
+                    }
+                    log.debug("Version conflict on booking batch of user {}, attempt {} of {}", userId, attempt,
+                            MAX_WRITE_ATTEMPTS);
+                }
+            }
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+    }
+
+    /**
+     * Проверяет записи пакета и вставляет прошедшие проверку в рамках одной транзакции.
+     * @param userId      ID пользователя, создающего бронирования
+     * @param bookingDtos DTO с данными бронирований
+     * @param itemIds     идентификаторы вещей пакета
+     * @return вставленные бронирования, загруженные вещи и результаты по каждой записи
+     */
+    private WrittenBatch insertBookings(Long userId, List<BookingRequestDto> bookingDtos, Set<Long> itemIds) {
+        Map<Long, Item> items = itemRepository.findAllForBooking(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        Map<Long, List<Booking>> acceptedByItem = new HashMap<>();
+        List<Booking> accepted = new ArrayList<>();
+        Map<Booking, Integer> positions = new IdentityHashMap<>();
+        List<BookingBatchResultDto> results = new ArrayList<>(bookingDtos.size());
+        for (int i = 0; i < bookingDtos.size(); i++) {
+            BookingRequestDto bookingDto = bookingDtos.get(i);
+            try {
+                validateRequest(bookingDto);
+                Item item = items.get(bookingDto.getItemId());
+                if (item == null) {
+                    throw new ItemNotFoundException(String.format("Вещь с ID %d не найдена при создании " +
+                            "бронирования", bookingDto.getItemId()));
+                }
+                validateItem(userId, item);
+                List<Booking> sameItem = acceptedByItem.computeIfAbsent(item.getId(), id -> new ArrayList<>());
+                boolean overlapsBatch = sameItem.stream().anyMatch(other -> other.getStart().isBefore(bookingDto.getEnd())
+                        && bookingDto.getStart().isBefore(other.getEnd()));
+                if (overlapsBatch || intervalIndex.overlaps(item.getId(), item.getVersion(), bookingDto.getStart(),
+                        bookingDto.getEnd())) {
+                    throw new BookingOverlapException(String.format("Вещь с ID %d уже забронирована на период " +
+                            "с %s по %s", bookingDto.getItemId(), bookingDto.getStart(), bookingDto.getEnd()));
+                }
+                Booking booking = BookingMapper.toBooking(bookingDto);
+                booking.setBookerId(userId);
+                booking.setStatus(BookingStatus.WAITING);
+                sameItem.add(booking);
+                accepted.add(booking);
+                positions.put(booking, i);
+                results.add(new BookingBatchResultDto(i, "CREATED", null, null));
+            } catch (IllegalArgumentException | ItemNotFoundException | NotAvailableException |
+                     OwnerCannotBookException | BookingOverlapException e) {
+                results.add(new BookingBatchResultDto(i, "REJECTED", null, e.getMessage()));
+            }
+        }
+        batchInserter.insertAll(accepted);
+        Map<Long, Long> itemVersions = items.values().stream()
+                .collect(Collectors.toMap(Item::getId, item -> item.getVersion() + 1));
+        return new WrittenBatch(accepted, items, itemVersions, positions, results);
+    }
+
+    /**
+     * Проверяет даты и наличие идентификатора вещи в запросе на бронирование.
+     * @param bookingDto DTO с данными бронирования
+     * @throws IllegalArgumentException если запрос не заполнен или даты бронирования некорректны
+     * @throws ItemNotFoundException    если идентификатор вещи не указан
+     */
+    private static void validateRequest(BookingRequestDto bookingDto) {
+        if (bookingDto == null) {
+            throw new IllegalArgumentException("Запрос на бронирование не заполнен");
+        }
         if (bookingDto.getStart() == null || bookingDto.getEnd() == null ||
                 bookingDto.getStart().isAfter(bookingDto.getEnd()) || bookingDto.getStart().isEqual(bookingDto.getEnd())) {
-            throw new IllegalArgumentException(String.format("Некорректные даты бронирования для вещи с ID %d",
+            throw new IllegalArgumentException(String.format("Некорректные даты бронирования для вещи с ID %s",
                     bookingDto.getItemId() != null ? bookingDto.getItemId() : "не указан"));
         }
         if (bookingDto.getItemId() == null) {
             throw new ItemNotFoundException("Идентификатор вещи не указан в запросе на бронирование");
         }
-        if (!userRepository.existsById(userId)) {
-            throw new UserNotFoundException(String.format("Пользователь с ID %d не найден при создании бронирования",
-                    userId));
-        }
-
-        User booker = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException(String.format("Пользователь с ID %d не найден при создании " +
-                        "бронирования", userId)));
-
-        Item item = itemRepository.findById(bookingDto.getItemId())
-                .orElseThrow(() -> new ItemNotFoundException(String.format("Вещь с ID %d не найдена при создании " +
-                        "бронирования", bookingDto.getItemId())));
+    }
 
+    /**
+     * Проверяет, что вещь доступна и пользователь не является её владельцем.
+     * @param userId ID пользователя, создающего бронирование
+     * @param item   бронируемая вещь
+     * @throws NotAvailableException    если вещь недоступна для бронирования
+     * @throws OwnerCannotBookException если пользователь пытается забронировать свою вещь
+     */
+    private static void validateItem(Long userId, Item item) {
         if (!item.getAvailable()) {
             throw new NotAvailableException(String.format("Вещь с ID %d недоступна для бронирования",
-                    bookingDto.getItemId()));
+                    item.getId()));
         }
         if (item.getOwnerId().equals(userId)) {
             throw new OwnerCannotBookException(String.format("Пользователь с ID %d не может бронировать свою вещь " +
-                    "с ID %d", userId, bookingDto.getItemId()));
+                    "с ID %d", userId, item.getId()));
         }
-
-        Booking booking = BookingMapper.toBooking(bookingDto);
-        booking.setBookerId(userId);
-        booking.setStatus(BookingStatus.WAITING);
-        Booking savedBooking = bookingRepository.save(booking);
-        return BookingMapper.toBookingResponseDto(savedBooking, item, booker);
     }
 
     /**
      * Подтверждает или отклоняет запрос на бронирование.
      * Только владелец вещи может изменить статус бронирования.
+     * Статус сразу меняется атомарным условным UPDATE (WAITING → APPROVED/REJECTED, только для владельца вещи),
+     * затем бронирование, вещь и автор читаются одним запросом для ответа. Из одновременных решений по одному
+     * бронированию применяется ровно одно. Причина отказа выясняется дополнительным чтением только тогда,
+     * когда UPDATE ничего не изменил.
      * @param userId    ID пользователя, подтверждающего бронирование (владелец вещи)
      * @param bookingId ID бронирования, которое нужно подтвердить или отклонить
      * @param approved  true для подтверждения, false для отклонения
      * @return DTO с информацией об обновленном бронировании
-     * @throws BookingNotFoundException    если бронирование не найдено
-     * @throws ItemNotFoundException      если вещь не найдена
+     * @throws BookingNotFoundException    если бронирование не найдено ни в горячей таблице, ни в архиве
      * @throws AccessDeniedException      если пользователь не является владельцем вещи
-     * @throws InvalidBookingStateException если статус бронирования не WAITING
+     * @throws InvalidBookingStateException если статус бронирования не WAITING, его уже изменили параллельно
+     *                                      или бронирование перенесено в архив
      */
     @Override
     public BookingResponseDto approveBooking(Long userId, Long bookingId, boolean approved) {
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new BookingNotFoundException(String.format("Бронирование с ID %d не найдено",
-                        bookingId)));
-        Item item = itemRepository.findById(booking.getItemId())
-                .orElseThrow(() -> new ItemNotFoundException(String.format("Вещь с ID %d не найдена для" +
-                        " бронирования %d", booking.getItemId(), bookingId)));
-        if (!item.getOwnerId().equals(userId)) {
+        BookingStatus newStatus = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        BookingDetails details = transactionTemplate.execute(status -> {
+            if (bookingRepository.updateWaitingStatus(List.of(bookingId), userId, newStatus) == 0) {
+                return null;
+            }
+            BookingDetails updated = bookingRepository.findDetailsById(bookingId)
+                    .orElseThrow(() -> new BookingNotFoundException(String.format("Бронирование с ID %d не найдено",
+                            bookingId)));
+            Long itemId = updated.getBooking().getItemId();
+            if (approved) {
+                datesMaintainer.refresh(List.of(itemId));
+            } else {
+                // Отклонение освобождает интервал: новая версия вещи заставит другие узлы перечитать шкалу
+                itemRepository.incrementVersion(itemId);
+            }
+            return updated;
+        });
+        if (details == null) {
+            throw decisionError(userId, bookingId);
+        }
+        Booking booking = details.getBooking();
+        if (!approved) {
+            // Отклонённое бронирование освобождает интервал вещи
+            intervalIndex.remove(booking);
+        }
+        return BookingMapper.toBookingResponseDto(booking, details.getItem(), details.getBooker());
+    }
+
+    /**
+     * Формирует ошибку решения по бронированию, статус которого условный UPDATE не изменил.
+     * @param userId    ID пользователя, принимающего решение
+     * @param bookingId ID бронирования
+     * @return исключение для бронирования, которое не в статусе WAITING или перенесено в архив
+     * @throws BookingNotFoundException если бронирования нет ни в горячей таблице, ни в архиве
+     * @throws AccessDeniedException   если пользователь не является владельцем вещи
+     */
+    private InvalidBookingStateException decisionError(Long userId, Long bookingId) {
+        BookingDetails details = bookingRepository.findDetailsById(bookingId).orElse(null);
+        if (details == null) {
+            return archivedDecisionError(userId, bookingId);
+        }
+        Booking booking = details.getBooking();
+        if (!details.getItem().getOwnerId().equals(userId)) {
             throw new AccessDeniedException(String.format("Пользователь с ID %d не является владельцем вещи с ID %d",
                     userId, booking.getItemId()));
         }
         if (booking.getStatus() != BookingStatus.WAITING) {
-            throw new InvalidBookingStateException(String.format("Статус бронирования с ID %d должен быть WAITING, " +
+            return new InvalidBookingStateException(String.format("Статус бронирования с ID %d должен быть WAITING, " +
                     "текущий статус: %s", bookingId, booking.getStatus()));
         }
-        booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        Booking savedBooking = bookingRepository.save(booking);
-        User booker = userRepository.findById(booking.getBookerId())
-                .orElseThrow(() -> new UserNotFoundException(String.format("Пользователь с ID %d не найден " +
-                        "для бронирования %d", booking.getBookerId(), bookingId)));
-        return BookingMapper.toBookingResponseDto(savedBooking, item, booker);
+        return new InvalidBookingStateException(String.format("Статус бронирования с ID %d уже изменён " +
+                "параллельным запросом", bookingId));
+    }
+
+    /**
+     * Формирует ошибку решения по бронированию, которого нет в горячей таблице.
+     * Архивные бронирования уже закончились и не могут быть изменены; права владельца проверяются
+     * так же, как для бронирований горячей таблицы.
+     * @param userId    ID пользователя, принимающего решение
+     * @param bookingId ID бронирования
+     * @return исключение для бронирования, найденного в архиве
+     * @throws BookingNotFoundException если бронирования нет и в архиве
+     * @throws AccessDeniedException   если пользователь не является владельцем вещи
+     */
+    private InvalidBookingStateException archivedDecisionError(Long userId, Long bookingId) {
+        ArchivedBooking archived = archivedBookingRepository.findById(bookingId)
+                .orElseThrow(() -> new BookingNotFoundException(String.format("Бронирование с ID %d не найдено",
+                        bookingId)));
+        Item item = itemCache.findById(archived.getItemId())
+                .orElseThrow(() -> new ItemNotFoundException(String.format("Вещь с ID %d не найдена для " +
+                        "бронирования %d", archived.getItemId(), bookingId)));
+        if (!item.getOwnerId().equals(userId)) {
+            throw new AccessDeniedException(String.format("Пользователь с ID %d не является владельцем вещи с ID %d",
+                    userId, archived.getItemId()));
+        }
+        return new InvalidBookingStateException(String.format("Бронирование с ID %d перенесено в архив и не может " +
+                "быть изменено, текущий статус: %s", bookingId, archived.getStatus()));
+    }
+
+    /**
+     * Применяет пакет решений владельца по бронированиям.
+     * Решения применяются одним условным UPDATE (status = WAITING и вещь принадлежит владельцу) без
+     * предварительной блокировки строк: подтверждение или отклонение выбирается выражением CASE.
+     * Затем в той же транзакции бронирования и владельцы их вещей читаются по одному запросу, чтобы
+     * классифицировать результат и обновить даты и версии затронутых вещей. Количество запросов
+     * не зависит от размера пакета.
+     * <p>
+     * Бронирование, уже находящееся в запрошенном статусе, считается применённым: повторное решение
+     * с тем же итогом идемпотентно.
+     * @param userId    ID владельца вещей
+     * @param decisions решения: ID бронирования → true для подтверждения, false для отклонения
+     * @return ID применённых, пропущенных (не найдены или в другом статусе) и запрещённых (чужие вещи) бронирований
+     * @throws IllegalArgumentException если пакет превышает {@value #MAX_BATCH_SIZE} записей или решение не указано
+     */
+    @Override
+    public BookingDecisionResultDto decideBookings(Long userId, Map<Long, Boolean> decisions) {
+        if (decisions.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(String.format("Пакет решений не может содержать более %d записей",
+                    MAX_BATCH_SIZE));
+        }
+        if (decisions.containsValue(null)) {
+            throw new IllegalArgumentException("Для каждого бронирования должно быть указано решение");
+        }
+        if (decisions.isEmpty()) {
+            return new BookingDecisionResultDto(List.of(), List.of(), List.of());
+        }
+        List<Long> approveIds = decisions.entrySet().stream()
+                .filter(Map.Entry::getValue)
+                .map(Map.Entry::getKey)
+                .toList();
+        List<Booking> rejected = new ArrayList<>();
+        BookingDecisionResultDto result = transactionTemplate.execute(status -> {
+            if (approveIds.isEmpty()) {
+                bookingRepository.updateWaitingStatus(decisions.keySet(), userId, BookingStatus.REJECTED);
+            } else if (approveIds.size() == decisions.size()) {
+                bookingRepository.updateWaitingStatus(decisions.keySet(), userId, BookingStatus.APPROVED);
+            } else {
+                bookingRepository.decideWaiting(decisions.keySet(), approveIds, userId);
+            }
+
+            List<Booking> bookings = bookingRepository.findAllById(decisions.keySet());
+            Set<Long> itemIds = bookings.stream().map(Booking::getItemId).collect(Collectors.toSet());
+            Map<Long, Long> owners = itemRepository.findAllById(itemIds).stream()
+                    .collect(Collectors.toMap(Item::getId, Item::getOwnerId));
+
+            List<Long> applied = new ArrayList<>();
+            Set<Long> missing = new HashSet<>(decisions.keySet());
+            List<Long> skipped = new ArrayList<>();
+            List<Long> forbidden = new ArrayList<>();
+            Set<Long> approvedItemIds = new HashSet<>();
+            for (Booking booking : bookings) {
+                missing.remove(booking.getId());
+                BookingStatus requested = decisions.get(booking.getId())
+                        ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+                if (!userId.equals(owners.get(booking.getItemId()))) {
+                    forbidden.add(booking.getId());
+                } else if (booking.getStatus() != requested) {
+                    skipped.add(booking.getId());
+                } else if (requested == BookingStatus.APPROVED) {
+                    applied.add(booking.getId());
+                    approvedItemIds.add(booking.getItemId());
+                } else {
+                    applied.add(booking.getId());
+                    rejected.add(booking);
+                }
+            }
+
+            if (!approvedItemIds.isEmpty()) {
+                datesMaintainer.refresh(approvedItemIds);
+            }
+            if (!rejected.isEmpty()) {
+                // Отклонение освобождает интервалы: новые версии вещей заставят другие узлы перечитать шкалы
+                itemRepository.incrementVersions(rejected.stream().map(Booking::getItemId)
+                        .collect(Collectors.toSet()));
+            }
+            skipped.addAll(missing);
+            return new BookingDecisionResultDto(applied, skipped, forbidden);
+        });
+        rejected.forEach(intervalIndex::remove);
+        return result;
     }
 
     /**
      * Получает информацию о конкретном бронировании.
      * Доступно только автору бронирования или владельцу вещи.
+     * Вещь и автор берутся из кэшей, вещь загружается один раз для проверки прав и для ответа.
+     * Бронирование, которого нет в горячей таблице, ищется в архиве.
      * @param userId    ID пользователя, запрашивающего информацию
      * @param bookingId ID запрашиваемого бронирования
      * @return Optional с DTO бронирования или пустой Optional, если бронирование не найдено
@@ -125,131 +500,352 @@ public class BookingServiceImpl implements BookingService {
     @Override
     public Optional<BookingResponseDto> getBooking(Long userId, Long bookingId) {
         return bookingRepository.findById(bookingId)
-                .filter(booking -> {
-                    Item item = itemRepository.findById(booking.getItemId()).orElse(null);
-                    return booking.getBookerId().equals(userId) ||
-                            (item != null && item.getOwnerId().equals(userId));
-                })
-                .map(booking -> {
-                    Item item = itemRepository.findById(booking.getItemId())
+                .or(() -> archivedBookingRepository.findById(bookingId).map(BookingMapper::toBooking))
+                .flatMap(booking -> {
+                    Item item = itemCache.findById(booking.getItemId())
                             .orElseThrow(() -> new ItemNotFoundException(String.format("Вещь с ID %d не найдена для " +
                                     "бронирования %d", booking.getItemId(), bookingId)));
-                    User booker = userRepository.findById(booking.getBookerId())
+                    if (!booking.getBookerId().equals(userId) && !item.getOwnerId().equals(userId)) {
+                        return Optional.empty();
+                    }
+                    User booker = userCache.findById(booking.getBookerId())
                             .orElseThrow(() -> new UserNotFoundException(String.format("Пользователь с ID %d не " +
                                     "найден для бронирования %d", booking.getBookerId(), bookingId)));
-                    return BookingMapper.toBookingResponseDto(booking, item, booker);
+                    return Optional.of(BookingMapper.toBookingResponseDto(booking, item, booker));
                 });
     }
 
     /**
-     * Получает список всех бронирований пользователя с фильтрацией по состоянию.
+     * Получает страницу бронирований пользователя с фильтрацией по состоянию.
      * Возможные значения state: ALL, CURRENT, PAST, FUTURE, WAITING, REJECTED.
      * @param userId ID пользователя, чьи бронирования нужно получить
      * @param state  Состояние бронирований для фильтрации
-     * @return Список DTO бронирований, отсортированный по дате начала (от новых к старым)
+     * @param from   Смещение первой записи (используется только без курсора) или null
+     * @param size   Размер страницы или null; без from, size и курсора возвращаются все бронирования
+     * @param cursor Курсор следующей страницы, полученный с предыдущей страницей
+     * @param includeArchived Добавлять ли архивные бронирования (только для состояний PAST и ALL)
+     * @return Страница DTO бронирований, отсортированная по дате начала (от новых к старым), и курсор следующей
      */
     @Override
-    public List<BookingResponseDto> getBookings(Long userId, String state) {
-        LocalDateTime now = LocalDateTime.now();
-        return bookingRepository.findAll().stream()
-                .filter(booking -> booking.getBookerId().equals(userId))
-                .filter(booking -> filterByState(booking, state, now))
-                .sorted((b1, b2) -> b2.getStart().compareTo(b1.getStart())) // Сортировка от новых к старым
-                .map(booking -> {
-                    Item item = itemRepository.findById(booking.getItemId())
-                            .orElseThrow(() -> new ItemNotFoundException(String.format("Вещь с ID %d не найдена для" +
-                                    " бронирования %d", booking.getItemId(), booking.getId())));
-                    User booker = userRepository.findById(booking.getBookerId())
-                            .orElseThrow(() -> new UserNotFoundException(String.format("Пользователь с ID %d не найден" +
-                                    " для бронирования %d", booking.getBookerId(), booking.getId())));
-                    return BookingMapper.toBookingResponseDto(booking, item, booker);
-                })
-                .collect(Collectors.toList());
+    public CursorPage<BookingResponseDto> getBookings(Long userId, String state, Integer from, Integer size,
+                                                      String cursor, boolean includeArchived) {
+        Pageable page = CursorPage.pageable(from, size, cursor);
+        KeysetCursor keyset = KeysetCursor.decode(cursor);
+        List<Booking> bookings;
+        if (includeArchived && ARCHIVED_STATES.contains(state.toUpperCase())) {
+            Pageable window = archiveWindow(page);
+            bookings = mergeArchived(findBookerBookings(userId, state, keyset, window),
+                    archivedBookingRepository.findBookerBookings(userId, keyset.getTimestamp(), keyset.getId(), window),
+                    page);
+        } else {
+            bookings = findBookerBookings(userId, state, keyset, page);
+        }
+        return new CursorPage<>(toResponseDtos(bookings), nextCursor(bookings, page));
     }
 
     /**
-     * Получает список всех бронирований для вещей, принадлежащих указанному пользователю.
+     * Получает страницу бронирований для вещей, принадлежащих указанному пользователю.
      * Возможные значения state: ALL, CURRENT, PAST, FUTURE, WAITING, REJECTED.
      * @param userId ID пользователя-владельца вещей
      * @param state  Состояние бронирований для фильтрации
-     * @return Список DTO бронирований, отсортированный по дате начала (от новых к старым)
-     * @throws UserNotFoundException если пользователь не найден
-     * @throws NotFoundException если бронирования для владельца не найдены
+     * @param from   Смещение первой записи (используется только без курсора) или null
+     * @param size   Размер страницы или null; без from, size и курсора возвращаются все бронирования
+     * @param cursor Курсор следующей страницы, полученный с предыдущей страницей
+     * @param includeArchived Добавлять ли архивные бронирования (только для состояний PAST и ALL)
+     * @return Страница DTO бронирований, отсортированная по дате начала (от новых к старым), и курсор следующей
+     * @throws NotFoundException если бронирования для владельца не найдены (для первой страницы)
      */
     @Override
-    public List<BookingResponseDto> getOwnerBookings(Long userId, String state) {
-        // Проверка существования пользователя
-        userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException(String.format("Пользователь с ID %d не найден при " +
-                        "запросе бронирований владельца", userId)));
-
-        LocalDateTime now = LocalDateTime.now();
-        List<BookingResponseDto> bookings = bookingRepository.findAll().stream()
-                .filter(booking -> itemRepository.findById(booking.getItemId())
-                        .map(item -> item.getOwnerId().equals(userId)).orElse(false))
-                .filter(booking -> filterByState(booking, state, now))
-                .sorted((b1, b2) -> b2.getStart().compareTo(b1.getStart())) // Сортировка от новых к старым
-                .map(booking -> {
-                    Item item = itemRepository.findById(booking.getItemId())
-                            .orElseThrow(() -> new ItemNotFoundException(String.format("Вещь с ID %d не найдена " +
-                                    "для бронирования %d", booking.getItemId(), booking.getId())));
-                    User booker = userRepository.findById(booking.getBookerId())
-                            .orElseThrow(() -> new UserNotFoundException(String.format("Пользователь с ID %d не " +
-                                    "найден для бронирования %d", booking.getBookerId(), booking.getId())));
-                    return BookingMapper.toBookingResponseDto(booking, item, booker);
-                })
-                .collect(Collectors.toList());
+    public CursorPage<BookingResponseDto> getOwnerBookings(Long userId, String state, Integer from, Integer size,
+                                                           String cursor, boolean includeArchived) {
+        Pageable page = CursorPage.pageable(from, size, cursor);
+        KeysetCursor keyset = KeysetCursor.decode(cursor);
+        List<Booking> ownerBookings;
+        if (includeArchived && ARCHIVED_STATES.contains(state.toUpperCase())) {
+            Pageable window = archiveWindow(page);
+            ownerBookings = mergeArchived(findOwnerBookings(userId, state, keyset, window),
+                    archivedBookingRepository.findOwnerBookings(userId, keyset.getTimestamp(), keyset.getId(), window),
+                    page);
+        } else {
+            ownerBookings = findOwnerBookings(userId, state, keyset, page);
+        }
+        List<BookingResponseDto> bookings = toResponseDtos(ownerBookings);
 
-        // Если бронирований нет, выбросить исключение
-        if (bookings.isEmpty()) {
+        // Если бронирований нет уже на первой странице, выбросить исключение
+        if (bookings.isEmpty() && (page.isUnpaged() || page.getOffset() == 0) && (cursor == null || cursor.isBlank())) {
             throw new NotFoundException(String.format("Бронирования для владельца с ID %d не найдены для состояния %s",
                     userId, state));
         }
 
-        return bookings;
+        return new CursorPage<>(bookings, nextCursor(ownerBookings, page));
+    }
+
+    /**
+     * Готовит потоковую выгрузку всей истории бронирований пользователя.
+     * Сначала выгружаются бронирования из горячей таблицы, затем архивные.
+     * @param userId ID пользователя, чьи бронирования выгружаются
+     * @return выгрузка, читающая бронирования курсором базы данных
+     */
+    @Override
+    public BookingExport exportBookings(Long userId) {
+        return sink -> streamBookings(() -> Stream.concat(bookingRepository.streamBookerBookings(userId),
+                archivedBookingRepository.streamBookerBookings(userId).map(BookingMapper::toBooking)), sink);
+    }
+
+    /**
+     * Готовит потоковую выгрузку всей истории бронирований вещей владельца.
+     * Сначала выгружаются бронирования из горячей таблицы, затем архивные.
+     * @param userId ID владельца вещей
+     * @return выгрузка, читающая бронирования курсором базы данных
+     */
+    @Override
+    public BookingExport exportOwnerBookings(Long userId) {
+        return sink -> streamBookings(() -> Stream.concat(bookingRepository.streamOwnerBookings(userId),
+                archivedBookingRepository.streamOwnerBookings(userId).map(BookingMapper::toBooking)), sink);
+    }
+
+    /**
+     * Читает бронирования из потока в read-only транзакции и передаёт их получателю порциями.
+     * Каждая порция гидратируется пачкой через {@link #toResponseDtos(List)}, после чего контекст
+     * персистентности очищается, поэтому в памяти одновременно находится не больше одной порции.
+     * @param query запрос, открывающий поток бронирований
+     * @param sink  получатель DTO бронирований
+     */
+    private void streamBookings(Supplier<Stream<Booking>> query, Consumer<BookingResponseDto> sink) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            List<Booking> chunk = new ArrayList<>(BookingRepository.EXPORT_FETCH_SIZE);
+            try (Stream<Booking> bookings = query.get()) {
+                Iterator<Booking> iterator = bookings.iterator();
+                while (iterator.hasNext()) {
+                    chunk.add(iterator.next());
+                    if (chunk.size() == BookingRepository.EXPORT_FETCH_SIZE || !iterator.hasNext()) {
+                        toResponseDtos(chunk).forEach(sink);
+                        chunk.clear();
+                        entityManager.clear();
+                    }
+                }
+            }
+        });
     }
 
     /**
-     * Получает список всех бронирований для указанной вещи.
+     * Проверяет, что пользователь завершил подтверждённую аренду вещи (APPROVED, end_date раньше текущего момента).
+     * Подтверждённые пары (пользователь, вещь) кэшируются: завершённая аренда не может перестать быть завершённой.
+     * Промах кэша стоит одной индексной проверки по bookings и, если там не нашлось, одной — по архиву.
+     * @param userId ID пользователя
      * @param itemId ID вещи
-     * @return List<BookingResponseDto> список бронирований
+     * @return true, если у пользователя есть завершённая подтверждённая аренда вещи
      */
     @Override
-    public List<BookingResponseDto> getBookingsForItem(Long itemId) {
-        return bookingRepository.findAll().stream()
-                .filter(booking -> booking.getItemId().equals(itemId))
+    public boolean hasCompletedRental(Long userId, Long itemId) {
+        return completedRentals.isCompleted(userId, itemId, () ->
+                bookingRepository.existsByItemIdAndBookerIdAndStatusAndEndBefore(itemId, userId,
+                        BookingStatus.APPROVED, LocalDateTime.now())
+                || archivedBookingRepository.existsByItemIdAndBookerIdAndStatus(itemId, userId,
+                        BookingStatus.APPROVED));
+    }
+
+    /**
+     * Получает даты последнего и ближайшего подтверждённого бронирования вещи.
+     * Даты читаются из строки вещи, а если они устарели — вычисляются запросом.
+     * @param item Вещь
+     * @return Даты последнего и ближайшего бронирования
+     */
+    @Override
+    public BookingDates getBookingDates(Item item) {
+        return datesMaintainer.current(item);
+    }
+
+    /**
+     * Получает даты последнего и ближайшего подтверждённого бронирования для набора вещей.
+     * Устаревшие даты всех вещей вычисляются одним общим запросом.
+     * @param items Вещи
+     * @return Даты по ID вещи
+     */
+    @Override
+    public Map<Long, BookingDates> getBookingDates(Collection<Item> items) {
+        return datesMaintainer.current(items);
+    }
+
+    /**
+     * Получает занятые окна вещи в диапазоне [from, to).
+     * Окна строятся по компактной шкале интервалов из {@link BookingIntervalIndex}, без загрузки DTO бронирований.
+     * Текущая версия вещи читается из базы, поэтому шкала, устаревшая после изменений на другом узле,
+     * перезагружается перед построением окон.
+     * @param itemId ID вещи
+     * @param from Начало диапазона
+     * @param to Окончание диапазона
+     * @return Объединённые занятые окна, отсортированные по началу
+     * @throws ItemNotFoundException если вещь не найдена
+     */
+    @Override
+    public List<BookingWindow> getBusyWindows(Long itemId, LocalDateTime from, LocalDateTime to) {
+        long itemVersion = itemRepository.findVersionById(itemId)
+                .orElseThrow(() -> new ItemNotFoundException(String.format("Вещь с ID %d не найдена", itemId)));
+        return intervalIndex.busyWindows(itemId, itemVersion, from, to);
+    }
+
+    /**
+     * Преобразует список бронирований в DTO, загружая связанные вещи и пользователей пачкой.
+     * Идентификаторы вещей и авторов собираются со всей страницы и загружаются одним findAllById на каждую
+     * таблицу, после чего DTO собираются из карт в памяти: страница из N бронирований стоит не более
+     * трёх запросов вместо 2N + 1.
+     * @param bookings Бронирования для преобразования
+     * @return Список DTO в том же порядке, что и исходные бронирования
+     * @throws ItemNotFoundException если вещь бронирования не найдена
+     * @throws UserNotFoundException если автор бронирования не найден
+     */
+    private List<BookingResponseDto> toResponseDtos(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> itemIds = bookings.stream().map(Booking::getItemId).collect(Collectors.toSet());
+        Set<Long> bookerIds = bookings.stream().map(Booking::getBookerId).collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        Map<Long, User> bookers = userRepository.findAllById(bookerIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return bookings.stream()
                 .map(booking -> {
-                    Item item = itemRepository.findById(booking.getItemId())
-                            .orElseThrow(() -> new ItemNotFoundException(String.format("Вещь с ID %d не " +
-                                    "найдена для бронирования %d", booking.getItemId(), booking.getId())));
-                    User booker = userRepository.findById(booking.getBookerId())
-                            .orElseThrow(() -> new UserNotFoundException(String.format("Пользователь с ID %d не" +
-                                    " найден для бронирования %d", booking.getBookerId(), booking.getId())));
+                    Item item = items.get(booking.getItemId());
+                    if (item == null) {
+                        throw new ItemNotFoundException(String.format("Вещь с ID %d не найдена для бронирования %d",
+                                booking.getItemId(), booking.getId()));
+                    }
+                    User booker = bookers.get(booking.getBookerId());
+                    if (booker == null) {
+                        throw new UserNotFoundException(String.format("Пользователь с ID %d не найден для " +
+                                "бронирования %d", booking.getBookerId(), booking.getId()));
+                    }
                     return BookingMapper.toBookingResponseDto(booking, item, booker);
                 })
                 .collect(Collectors.toList());
     }
 
     /**
-     * Фильтрует бронирование по состоянию на основе текущего времени и статуса.
-     * @param booking Бронирование для проверки
-     * @param state Строковое представление состояния для фильтрации (CURRENT, PAST, FUTURE, WAITING, REJECTED, ALL)
-     * @param now Текущее время для сравнения с датами бронирования
-     * @return true если бронирование соответствует указанному состоянию, иначе false
+     * Загружает страницу бронирований пользователя для указанного состояния.
+     * Фильтрация, сортировка и отсечение по курсору выполняются в базе данных по индексам (booker_id, ...),
+     * поэтому стоимость запроса зависит только от размера страницы.
+     * @param userId ID автора бронирований
+     * @param state Строковое представление состояния (CURRENT, PAST, FUTURE, WAITING, REJECTED, ALL)
+     * @param cursor Курсор, после которого начинается страница
+     * @param page Размер страницы
+     * @return Список бронирований, отсортированный по дате начала (от новых к старым);
+     *         пустой список для неизвестного состояния
      */
-    private boolean filterByState(Booking booking, String state, LocalDateTime now) {
+    private List<Booking> findBookerBookings(Long userId, String state, KeysetCursor cursor, Pageable page) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = cursor.getTimestamp();
+        Long id = cursor.getId();
         return switch (state.toUpperCase()) {
-            case "CURRENT" -> booking.getStart().isBefore(now) && booking.getEnd().isAfter(now);
-            case "PAST" -> booking.getEnd().isBefore(now);
-            case "FUTURE" -> booking.getStart().isAfter(now);
-            case "WAITING" -> booking.getStatus() == BookingStatus.WAITING;
-            case "REJECTED" -> booking.getStatus() == BookingStatus.REJECTED;
-            case "ALL" -> true;
-            default -> false;
+            case "CURRENT" -> bookingRepository.findBookerCurrentBookings(userId, now, start, id, page);
+            case "PAST" -> bookingRepository.findBookerPastBookings(userId, now, start, id, page);
+            case "FUTURE" -> bookingRepository.findBookerFutureBookings(userId, now, start, id, page);
+            case "WAITING" -> bookingRepository.findBookerBookingsByStatus(userId, BookingStatus.WAITING, start, id,
+                    page);
+            case "REJECTED" -> bookingRepository.findBookerBookingsByStatus(userId, BookingStatus.REJECTED, start, id,
+                    page);
+            case "ALL" -> bookingRepository.findBookerBookings(userId, start, id, page);
+            default -> List.of();
         };
     }
 
-}
+    /**
+     * Загружает страницу бронирований вещей владельца для указанного состояния.
+     * Бронирования соединяются с вещами в одном запросе, фильтр по owner_id, состоянию и курсору
+     * выполняется в базе данных, поэтому вещи не загружаются построчно.
+     * @param userId ID владельца вещей
+     * @param state Строковое представление состояния (CURRENT, PAST, FUTURE, WAITING, REJECTED, ALL)
+     * @param cursor Курсор, после которого начинается страница
+     * @param page Размер страницы
+     * @return Список бронирований, отсортированный по дате начала (от новых к старым);
+     *         пустой список для неизвестного состояния
+     */
+    private List<Booking> findOwnerBookings(Long userId, String state, KeysetCursor cursor, Pageable page) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = cursor.getTimestamp();
+        Long id = cursor.getId();
+        return switch (state.toUpperCase()) {
+            case "CURRENT" -> bookingRepository.findOwnerCurrentBookings(userId, now, start, id, page);
+            case "PAST" -> bookingRepository.findOwnerPastBookings(userId, now, start, id, page);
+            case "FUTURE" -> bookingRepository.findOwnerFutureBookings(userId, now, start, id, page);
+            case "WAITING" -> bookingRepository.findOwnerBookingsByStatus(userId, BookingStatus.WAITING, start, id,
+                    page);
+            case "REJECTED" -> bookingRepository.findOwnerBookingsByStatus(userId, BookingStatus.REJECTED, start, id,
+                    page);
+            case "ALL" -> bookingRepository.findOwnerBookings(userId, start, id, page);
+            default -> List.of();
+        };
+    }
+
+    /**
+     * Параметры выборки из каждого источника при объединении с архивом.
+     * Без курсора страница задаётся смещением, поэтому из каждого источника берутся первые offset + size записей.
+     * @param page Параметры запрошенной страницы
+     * @return Параметры выборки с нулевым смещением или неограниченная выборка для запроса без пагинации
+     */
+    private static Pageable archiveWindow(Pageable page) {
+        if (page.isUnpaged()) {
+            return page;
+        }
+        return OffsetPageRequest.of(0, (int) Math.min(page.getOffset() + page.getPageSize(), Integer.MAX_VALUE));
+    }
+
+    /**
+     * Объединяет отсортированные выборки горячей таблицы и архива в одну страницу.
+     * Обе выборки отсортированы по (start, id) по убыванию; бронирование, перенесённое в архив между
+     * запросами, встречается один раз.
+     * @param live Бронирования горячей таблицы
+     * @param archived Архивные бронирования
+     * @param page Параметры запрошенной страницы
+     * @return Страница бронирований, отсортированная по дате начала и id (от новых к старым)
+     */
+    private static List<Booking> mergeArchived(List<Booking> live, List<ArchivedBooking> archived, Pageable page) {
+        Map<Long, Booking> merged = new LinkedHashMap<>();
+        live.forEach(booking -> merged.put(booking.getId(), booking));
+        archived.forEach(booking -> merged.putIfAbsent(booking.getId(), BookingMapper.toBooking(booking)));
+        Stream<Booking> sorted = merged.values().stream()
+                .sorted(Comparator.comparing(Booking::getStart).thenComparing(Booking::getId).reversed());
+        if (page.isPaged()) {
+            sorted = sorted.skip(page.getOffset()).limit(page.getPageSize());
+        }
+        return sorted.collect(Collectors.toList());
+    }
 
+    /**
+     * Формирует курсор следующей страницы по последнему бронированию текущей.
+     * @param bookings Бронирования текущей страницы
+     * @param page Параметры выборки текущей страницы
+     * @return Курсор следующей страницы или null, если страница неполная (последняя) или выборка не ограничена
+     */
+    private static String nextCursor(List<Booking> bookings, Pageable page) {
+        if (page.isUnpaged() || bookings.size() < page.getPageSize()) {
+            return null;
+        }
+        Booking last = bookings.get(bookings.size() - 1);
+        return new KeysetCursor(last.getStart(), last.getId()).encode();
+    }
 
+    /**
+     * Результат транзакции создания бронирования.
+     * @param booking     сохранённое бронирование
+     * @param item        забронированная вещь
+     * @param itemVersion версия вещи после коммита
+     */
+    private record WrittenBooking(Booking booking, Item item, long itemVersion) {
+    }
 
+    /**
+     * Результат транзакции пакетного создания бронирований.
+     * @param accepted     вставленные бронирования
+     * @param items        вещи пакета по ID
+     * @param itemVersions версии вещей пакета после коммита
+     * @param positions    позиции вставленных бронирований во входном списке
+     * @param results      результаты по каждой записи входного списка
+     */
+    private record WrittenBatch(List<Booking> accepted, Map<Long, Item> items, Map<Long, Long> itemVersions,
+                                Map<Booking, Integer> positions, List<BookingBatchResultDto> results) {
+    }
+}
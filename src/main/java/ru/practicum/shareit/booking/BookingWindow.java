@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AccessLevel;
+import lombok.Value;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * Временное окно [start, end) на шкале бронирований вещи.
+ */
+@Value
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookingWindow {
+    /**
+     * Начало окна (включительно).
+     */
+    LocalDateTime start;
+
+    /**
+     * Окончание окна (не включительно).
+     */
+    LocalDateTime end;
+}
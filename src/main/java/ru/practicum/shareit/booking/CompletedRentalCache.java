@@ -0,0 +1,59 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.BoundedCache;
+import ru.practicum.shareit.cache.BoundedCacheMetrics;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Кэш подтверждённых завершённых аренд: пары (пользователь, вещь), для которых есть бронирование APPROVED,
+ * закончившееся в прошлом. Завершённая аренда не может перестать быть завершённой, поэтому кэшируются
+ * только положительные ответы и инвалидация не нужна. Метрики публикуются под именем кэша completedRentals.
+ */
+@Component
+public class CompletedRentalCache {
+    static final String CACHE_NAME = "completedRentals";
+
+    private final BoundedCache<RentalKey, Boolean> cache;
+
+    public CompletedRentalCache(@Value("${shareit.booking.completed-rentals.max-size:10000}") int maxSize,
+                                @Value("${shareit.booking.completed-rentals.ttl:PT24H}") Duration ttl,
+                                MeterRegistry meterRegistry) {
+        this.cache = new BoundedCache<>(maxSize, ttl);
+        BoundedCacheMetrics.monitor(cache, CACHE_NAME, meterRegistry);
+    }
+
+    /**
+     * Возвращает true из кэша или выполняет проверку и запоминает положительный результат.
+     *
+     * @param userId идентификатор пользователя
+     * @param itemId идентификатор вещи
+     * @param check  проверка по базе данных
+     * @return true, если у пользователя есть завершённая подтверждённая аренда вещи
+     */
+    public boolean isCompleted(Long userId, Long itemId, BooleanSupplier check) {
+        RentalKey key = new RentalKey(userId, itemId);
+        if (cache.get(key) != null) {
+            return true;
+        }
+        long generation = cache.generation();
+        boolean completed = check.getAsBoolean();
+        if (completed) {
+            cache.put(key, Boolean.TRUE, generation);
+        }
+        return completed;
+    }
+
+    /**
+     * Ключ кэша завершённых аренд.
+     *
+     * @param userId идентификатор пользователя
+     * @param itemId идентификатор вещи
+     */
+    private record RentalKey(Long userId, Long itemId) {
+    }
+}
@@ -0,0 +1,192 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.ItemCache;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Поддержка материализованных дат последнего и ближайшего бронирования вещей (items.last_booking,
+ * items.next_booking).
+ * <p>
+ * Даты пересчитываются в транзакции подтверждения бронирования, а планировщик пересчитывает вещи,
+ * у которых наступил момент устаревания (ближайшее бронирование началось или текущее закончилось).
+ * Ежесуточная сверка пересчитывает весь каталог и исправляет расхождения. Если планировщик ещё
+ * не успел обработать вещь, чтение вычисляет даты запросом, не дожидаясь его.
+ */
+@Slf4j
+@Component
+public class ItemBookingDatesMaintainer {
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ItemCache itemCache;
+    private final int batchSize;
+
+    public ItemBookingDatesMaintainer(BookingRepository bookingRepository,
+                                      ArchivedBookingRepository archivedBookingRepository,
+                                      ItemRepository itemRepository,
+                                      TransactionTemplate transactionTemplate,
+                                      ItemCache itemCache,
+                                      @Value("${shareit.item.booking-dates.batch-size:500}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.itemRepository = itemRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.itemCache = itemCache;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Возвращает даты бронирований вещи.
+     * Обычно это сохранённые значения строки вещи; если они устарели, даты вычисляются запросом.
+     *
+     * @param item вещь
+     * @return даты последнего и ближайшего бронирования
+     */
+    public BookingDates current(Item item) {
+        return current(List.of(item)).get(item.getId());
+    }
+
+    /**
+     * Возвращает даты бронирований набора вещей.
+     * Сохранённые значения берутся из строк вещей; устаревшие вычисляются одним общим запросом
+     * для всех таких вещей, поэтому число запросов не зависит от количества вещей.
+     *
+     * @param items вещи
+     * @return даты по идентификатору вещи
+     */
+    public Map<Long, BookingDates> current(Collection<Item> items) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BookingDates> dates = new HashMap<>();
+        List<Long> stale = new ArrayList<>();
+        for (Item item : items) {
+            if (item.getBookingDatesRefreshAt() != null && item.getBookingDatesRefreshAt().isBefore(now)) {
+                stale.add(item.getId());
+            } else {
+                dates.put(item.getId(), new BookingDates(item.getId(), item.getLastBooking(), item.getNextBooking(),
+                        item.getBookingDatesRefreshAt()));
+            }
+        }
+        if (!stale.isEmpty()) {
+            dates.putAll(compute(stale, now));
+        }
+        return dates;
+    }
+
+    /**
+     * Пересчитывает и сохраняет даты бронирований вещей.
+     * Вызывается внутри транзакции, изменившей подтверждённые бронирования этих вещей.
+     *
+     * @param itemIds идентификаторы вещей
+     */
+    public void refresh(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        compute(itemIds, LocalDateTime.now()).values().forEach(this::save);
+    }
+
+    /**
+     * Пересчитывает вещи, даты которых устарели с течением времени.
+     */
+    @Scheduled(fixedDelayString = "${shareit.item.booking-dates.advance-interval:PT1M}")
+    public void advance() {
+        int total = 0;
+        List<Long> stale;
+        do {
+            LocalDateTime now = LocalDateTime.now();
+            stale = itemRepository.findIdsWithStaleBookingDates(now, PageRequest.of(0, batchSize));
+            List<Long> batch = stale;
+            transactionTemplate.executeWithoutResult(status -> refresh(batch));
+            total += stale.size();
+        } while (stale.size() == batchSize);
+        if (total > 0) {
+            log.debug("Advanced booking dates of {} items", total);
+        }
+    }
+
+    /**
+     * Сверяет сохранённые даты бронирований всего каталога с вычисленными и исправляет расхождения.
+     *
+     * @return количество исправленных вещей
+     */
+    @Scheduled(cron = "${shareit.item.booking-dates.reconcile-cron:0 30 3 * * *}")
+    public int reconcile() {
+        int repaired = 0;
+        long afterId = 0;
+        List<Item> items;
+        do {
+            items = itemRepository.findPageAfter(afterId, PageRequest.of(0, batchSize));
+            if (items.isEmpty()) {
+                break;
+            }
+            Map<Long, BookingDates> actual = compute(items.stream().map(Item::getId).toList(), LocalDateTime.now());
+            List<BookingDates> drifted = items.stream()
+                    .filter(item -> !matches(item, actual.get(item.getId())))
+                    .map(item -> actual.get(item.getId()))
+                    .toList();
+            if (!drifted.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> drifted.forEach(this::save));
+                repaired += drifted.size();
+            }
+            afterId = items.get(items.size() - 1).getId();
+        } while (items.size() == batchSize);
+        if (repaired > 0) {
+            log.warn("Reconciliation repaired booking dates of {} items", repaired);
+        }
+        return repaired;
+    }
+
+    /**
+     * Вычисляет даты бронирований вещей: один агрегирующий запрос по горячей таблице и,
+     * для вещей без завершённых бронирований в ней, один запрос по архиву.
+     *
+     * @param itemIds идентификаторы вещей
+     * @param now     текущий момент времени
+     * @return даты по каждой из вещей
+     */
+    private Map<Long, BookingDates> compute(Collection<Long> itemIds, LocalDateTime now) {
+        Map<Long, BookingDates> dates = new HashMap<>(bookingRepository.findApprovedBookingDates(itemIds, now).stream()
+                .collect(Collectors.toMap(BookingDates::getItemId, Function.identity())));
+        Set<Long> withoutLast = itemIds.stream()
+                .filter(id -> dates.get(id) == null || dates.get(id).getLastBooking() == null)
+                .collect(Collectors.toSet());
+        if (!withoutLast.isEmpty()) {
+            archivedBookingRepository.findApprovedLastBookings(withoutLast).forEach(archived ->
+                    dates.merge(archived.getItemId(), archived, (live, old) -> new BookingDates(live.getItemId(),
+                            old.getLastBooking(), live.getNextBooking(), live.getRefreshAt())));
+        }
+        itemIds.forEach(id -> dates.putIfAbsent(id, new BookingDates(id, null, null, null)));
+        return dates;
+    }
+
+    private void save(BookingDates dates) {
+        itemRepository.updateBookingDates(dates.getItemId(), dates.getLastBooking(), dates.getNextBooking(),
+                dates.getRefreshAt());
+        itemCache.evict(dates.getItemId());
+    }
+
+    private static boolean matches(Item item, BookingDates dates) {
+        return Objects.equals(item.getLastBooking(), dates.getLastBooking())
+                && Objects.equals(item.getNextBooking(), dates.getNextBooking())
+                && Objects.equals(item.getBookingDatesRefreshAt(), dates.getRefreshAt());
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Полосатые (striped) блокировки по идентификатору вещи внутри одного узла.
+ * Писатели одной вещи сериализуются, писатели разных вещей почти никогда не конкурируют:
+ * вещь отображается на одну из фиксированного числа блокировок, поэтому память не растёт с каталогом.
+ * Между узлами запись сериализует версия вещи (@Version), см. {@link BookingServiceImpl}.
+ */
+@Component
+public class ItemLockStripes {
+    private final Lock[] stripes;
+    private final int mask;
+
+    /**
+     * @param stripes желаемое количество блокировок; округляется вверх до степени двойки
+     */
+    public ItemLockStripes(@Value("${shareit.booking.lock-stripes:64}") int stripes) {
+        int size = Integer.highestOneBit(Math.max(stripes - 1, 1)) << 1;
+        this.stripes = new Lock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Возвращает блокировку для вещи.
+     *
+     * @param itemId идентификатор вещи
+     * @return блокировка полосы, к которой относится вещь
+     */
+    public Lock forItem(Long itemId) {
+        return stripes[index(itemId)];
+    }
+
+    /**
+     * Возвращает блокировки для набора вещей без повторов, упорядоченные по номеру полосы.
+     * Захват в этом порядке исключает взаимную блокировку пакетных и одиночных писателей.
+     *
+     * @param itemIds идентификаторы вещей
+     * @return блокировки полос в порядке захвата
+     */
+    public List<Lock> forItems(Collection<Long> itemIds) {
+        return itemIds.stream()
+                .mapToInt(this::index)
+                .distinct()
+                .sorted()
+                .mapToObj(index -> stripes[index])
+                .toList();
+    }
+
+    /**
+     * Номер полосы для вещи; хэш перемешивается, чтобы последовательные id расходились по полосам.
+     */
+    int index(Long itemId) {
+        int hash = itemId.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return hash & mask;
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * DTO результата обработки одной записи пакетного создания бронирований
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookingBatchResultDto {
+    /**
+     * Позиция записи во входном списке (начиная с 0)
+     */
+    int index;
+    /**
+     * Результат обработки: CREATED или REJECTED
+     */
+    String status;
+    /**
+     * Созданное бронирование (только для CREATED)
+     */
+    BookingResponseDto booking;
+    /**
+     * Причина отказа (только для REJECTED)
+     */
+    String error;
+}
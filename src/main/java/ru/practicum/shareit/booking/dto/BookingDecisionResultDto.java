@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+/**
+ * DTO результата пакетного подтверждения/отклонения бронирований владельцем
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookingDecisionResultDto {
+    /**
+     * Бронирования, статус которых изменён
+     */
+    List<Long> applied;
+    /**
+     * Бронирования, которые не найдены или уже решены иначе
+     */
+    List<Long> skipped;
+    /**
+     * Бронирования вещей, которые не принадлежат пользователю
+     */
+    List<Long> forbidden;
+}
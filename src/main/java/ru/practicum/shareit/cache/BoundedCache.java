@@ -0,0 +1,164 @@
+package ru.practicum.shareit.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+
+/**
+ * Ограниченный кэш в памяти с вытеснением давно не использованных записей (LRU) и временем жизни записей (TTL).
+ * <p>
+ * Кэш потокобезопасен: все операции над записями выполняются под монитором кэша. Поколение кэша
+ * ({@link #generation()}) увеличивается при каждой инвалидации; {@link #put(Object, Object, long)}
+ * не сохраняет значение, вычисленное до инвалидации, поэтому устаревший результат не попадает в кэш
+ * после изменения данных. Счётчики попаданий, промахов, записей и вытеснений публикуются
+ * через {@link BoundedCacheMetrics}.
+ *
+ * @param <K> тип ключа
+ * @param <V> тип значения
+ */
+public class BoundedCache<K, V> {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private long generation;
+
+    /**
+     * @param maxSize максимальное количество записей
+     * @param ttl     время жизни записи
+     */
+    public BoundedCache(int maxSize, Duration ttl) {
+        if (maxSize <= 0 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException(String.format("Некорректные параметры кэша: maxSize=%d, ttl=%s",
+                    maxSize, ttl));
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Возвращает значение по ключу, если запись есть и не истекла.
+     *
+     * @param key ключ
+     * @return значение или null
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt() - System.nanoTime() <= 0) {
+            entries.remove(key);
+            evictions.increment();
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value();
+    }
+
+    /**
+     * @return текущее поколение кэша; передаётся в {@link #put(Object, Object, long)} вместе с вычисленным значением
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Сохраняет значение, если с момента получения поколения кэш не инвалидировался.
+     * При превышении размера вытесняется давно не использованная запись.
+     *
+     * @param key        ключ
+     * @param value      значение
+     * @param generation поколение, полученное до вычисления значения
+     * @return true, если значение сохранено
+     */
+    public synchronized boolean put(K key, V value, long generation) {
+        if (generation != this.generation) {
+            return false;
+        }
+        entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+        puts.increment();
+        if (entries.size() > maxSize) {
+            Iterator<K> eldest = entries.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+        return true;
+    }
+
+    /**
+     * Удаляет запись по ключу.
+     *
+     * @param key ключ
+     */
+    public synchronized void invalidate(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    /**
+     * Удаляет записи, удовлетворяющие условию.
+     *
+     * @param predicate условие над ключом и значением
+     * @return количество удалённых записей
+     */
+    public synchronized int invalidateIf(BiPredicate<K, V> predicate) {
+        generation++;
+        int removed = 0;
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, Entry<V>> entry = iterator.next();
+            if (predicate.test(entry.getKey(), entry.getValue().value())) {
+                iterator.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Удаляет все записи.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long putCount() {
+        return puts.sum();
+    }
+
+    /**
+     * @return количество вытеснений: по размеру и по истечении времени жизни
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * Публикация метрик {@link BoundedCache} в Micrometer под стандартными именами
+ * (cache.gets, cache.puts, cache.evictions, cache.size) с тегом cache=имя кэша.
+ * Метрики доступны через actuator: /actuator/metrics/cache.gets?tag=cache:имя.
+ */
+public class BoundedCacheMetrics extends CacheMeterBinder<BoundedCache<?, ?>> {
+
+    public BoundedCacheMetrics(BoundedCache<?, ?> cache, String cacheName, Iterable<Tag> tags) {
+        super(cache, cacheName, tags);
+    }
+
+    /**
+     * Регистрирует метрики кэша в реестре.
+     *
+     * @param cache     кэш
+     * @param cacheName имя кэша
+     * @param registry  реестр метрик
+     */
+    public static void monitor(BoundedCache<?, ?> cache, String cacheName, MeterRegistry registry) {
+        new BoundedCacheMetrics(cache, cacheName, Tags.empty()).bindTo(registry);
+    }
+
+    @Override
+    protected Long size() {
+        BoundedCache<?, ?> cache = getCache();
+        return cache != null ? (long) cache.size() : null;
+    }
+
+    @Override
+    protected long hitCount() {
+        BoundedCache<?, ?> cache = getCache();
+        return cache != null ? cache.hitCount() : 0;
+    }
+
+    @Override
+    protected Long missCount() {
+        BoundedCache<?, ?> cache = getCache();
+        return cache != null ? cache.missCount() : null;
+    }
+
+    @Override
+    protected Long evictionCount() {
+        BoundedCache<?, ?> cache = getCache();
+        return cache != null ? cache.evictionCount() : null;
+    }
+
+    @Override
+    protected long putCount() {
+        BoundedCache<?, ?> cache = getCache();
+        return cache != null ? cache.putCount() : 0;
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+    }
+}
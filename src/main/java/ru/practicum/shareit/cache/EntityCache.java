@@ -0,0 +1,85 @@
+package ru.practicum.shareit.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Кэш сущностей по идентификатору, читающий из базы при промахе (read-through).
+ * <p>
+ * В кэше хранятся отсоединённые копии сущностей, и каждому вызывающему возвращается своя копия,
+ * поэтому изменение полученного объекта не влияет на кэш и на других читателей. Кэш предназначен для чтения:
+ * изменяющие операции загружают сущность из репозитория и после записи вызывают {@link #evict(Long)}.
+ * Отсутствующие сущности не кэшируются.
+ *
+ * @param <T> тип сущности
+ */
+public class EntityCache<T> {
+    private final BoundedCache<Long, T> cache;
+    private final Function<Long, Optional<T>> loader;
+    private final UnaryOperator<T> copier;
+
+    /**
+     * @param name          имя кэша в метриках
+     * @param maxSize       максимальное количество сущностей
+     * @param ttl           время жизни записи
+     * @param loader        загрузка сущности из базы по идентификатору
+     * @param copier        создание отсоединённой копии сущности
+     * @param meterRegistry реестр метрик
+     */
+    public EntityCache(String name, int maxSize, Duration ttl, Function<Long, Optional<T>> loader,
+                       UnaryOperator<T> copier, MeterRegistry meterRegistry) {
+        this.cache = new BoundedCache<>(maxSize, ttl);
+        this.loader = loader;
+        this.copier = copier;
+        BoundedCacheMetrics.monitor(cache, name, meterRegistry);
+    }
+
+    /**
+     * Возвращает копию сущности из кэша или загружает её из базы.
+     *
+     * @param id идентификатор сущности
+     * @return сущность, если найдена
+     */
+    public Optional<T> findById(Long id) {
+        T cached = cache.get(id);
+        if (cached != null) {
+            return Optional.of(copier.apply(cached));
+        }
+        long generation = cache.generation();
+        Optional<T> loaded = loader.apply(id);
+        loaded.ifPresent(entity -> cache.put(id, copier.apply(entity), generation));
+        return loaded;
+    }
+
+    /**
+     * @param id идентификатор сущности
+     * @return true, если сущность существует
+     */
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+
+    /**
+     * Удаляет сущность из кэша. Внутри транзакции сущность удаляется повторно после коммита,
+     * чтобы чтение, выполненное до коммита, не вернуло в кэш прежнее состояние.
+     *
+     * @param id идентификатор сущности
+     */
+    public void evict(Long id) {
+        cache.invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(id);
+                }
+            });
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -137,6 +138,32 @@ public class GlobalExceptionHandler {
         return new ErrorResponse(e.getMessage());
     }
 
+    /**
+     * Обработка исключения BookingOverlapException.
+     * Возвращает статус 409 Conflict с сообщением об ошибке.
+     * @param e исключение
+     * @return объект с сообщением об ошибке
+     */
+    @ExceptionHandler(BookingOverlapException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleBookingOverlapException(BookingOverlapException e) {
+        log.warn("Пересечение бронирований: {}", e.getMessage());
+        return new ErrorResponse(e.getMessage());
+    }
+
+    /**
+     * Обработка исключения OptimisticLockingFailureException (конфликт версий записи).
+     * Возвращает статус 409 Conflict с сообщением об ошибке.
+     * @param e исключение
+     * @return объект с сообщением об ошибке
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleOptimisticLockingFailureException(OptimisticLockingFailureException e) {
+        log.warn("Конфликт версий: {}", e.getMessage());
+        return new ErrorResponse("Запись была изменена параллельным запросом, повторите попытку");
+    }
+
     /**
      * Обработка ошибок валидации аргументов метода.
      * Собирает все ошибки валидации в карту и возвращает с HTTP статусом 400.
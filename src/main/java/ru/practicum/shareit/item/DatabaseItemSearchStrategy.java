@@ -0,0 +1,30 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.ItemRepository;
+
+import java.util.List;
+
+/**
+ * Поиск вещей запросом к базе данных, без хранения каталога в памяти узла.
+ * Сопоставление выполняется в SQL и на PostgreSQL опирается на триграммные индексы,
+ * лучшие совпадения отбираются сортировкой с ограничением LIMIT на стороне базы; запрос возвращает
+ * только идентификаторы, поэтому поиск стоит одного запроса, а вещи загружаются только для страницы.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.item.search.strategy", havingValue = "database")
+public class DatabaseItemSearchStrategy implements ItemSearchStrategy {
+    private final ItemRepository itemRepository;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Long> search(String text, int limit) {
+        return itemRepository.searchAvailableIds(ItemSearchStrategy.containsPattern(text), PageRequest.of(0, limit));
+    }
+}
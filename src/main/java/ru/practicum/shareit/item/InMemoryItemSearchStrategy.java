@@ -0,0 +1,44 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemRepository;
+
+import java.util.List;
+
+/**
+ * Поиск вещей по инвертированному индексу в памяти узла.
+ * Индекс хранит только доступные вещи, поэтому его результат возвращается без обращения к базе;
+ * пока индекс строится при старте, поиск выполняется запросом к базе.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.item.search.strategy", havingValue = "memory", matchIfMissing = true)
+public class InMemoryItemSearchStrategy implements ItemSearchStrategy {
+    private final ItemSearchIndex searchIndex;
+    private final ItemRepository itemRepository;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Long> search(String text, int limit) {
+        if (!searchIndex.isReady()) {
+            return itemRepository.searchAvailableIds(ItemSearchStrategy.containsPattern(text),
+                    PageRequest.of(0, limit));
+        }
+        return searchIndex.search(text, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Вещь переиндексируется.
+     */
+    @Override
+    public void itemSaved(Item item) {
+        searchIndex.put(item);
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.EntityCache;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemRepository;
+
+import java.time.Duration;
+
+/**
+ * Кэш вещей перед {@link ItemRepository#findById(Object)}. Метрики публикуются под именем кэша items.
+ * Инвалидируется при изменении вещи и при пересчёте её дат бронирований.
+ */
+@Component
+public class ItemCache extends EntityCache<Item> {
+
+    public ItemCache(ItemRepository itemRepository,
+                     @Value("${shareit.cache.items.max-size:10000}") int maxSize,
+                     @Value("${shareit.cache.items.ttl:PT10M}") Duration ttl,
+                     MeterRegistry meterRegistry) {
+        super("items", maxSize, ttl, itemRepository::findById, ItemCache::copy, meterRegistry);
+    }
+
+    private static Item copy(Item item) {
+        Item copy = new Item();
+        copy.setId(item.getId());
+        copy.setName(item.getName());
+        copy.setDescription(item.getDescription());
+        copy.setAvailable(item.getAvailable());
+        copy.setOwnerId(item.getOwnerId());
+        copy.setRequestId(item.getRequestId());
+        copy.setRentalCount(item.getRentalCount());
+        copy.setLastBooking(item.getLastBooking());
+        copy.setNextBooking(item.getNextBooking());
+        copy.setBookingDatesRefreshAt(item.getBookingDatesRefreshAt());
+        copy.setVersion(item.getVersion());
+        return copy;
+    }
+}
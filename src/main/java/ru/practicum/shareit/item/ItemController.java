@@ -1,13 +1,15 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
-import ru.practicum.shareit.user.UserService;
-
+import ru.practicum.shareit.user.SharerPrincipal;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -19,109 +21,123 @@ import java.util.List;
 public class ItemController {
 
     private final ItemService itemService;
-    private final UserService userService;
-
-    // Константа для имени заголовка
-    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
 
     /**
      * Получение всех предметов пользователя
-     * @param userId идентификатор пользователя
+     * @param principal пользователь
      * @return список DTO предметов
      */
     @GetMapping
-    public ResponseEntity<List<ItemDto>> getAllItems(
-            @RequestHeader(USER_ID_HEADER) Long userId) {
-        return ResponseEntity.ok(itemService.getAllItems(userId));
+    public ResponseEntity<List<ItemDto>> getAllItems(SharerPrincipal principal) {
+        return ResponseEntity.ok(itemService.getAllItems(principal.getUserId()));
     }
 
     // Метод для добавления новой вещи
     @PostMapping
-    public ResponseEntity<ItemDto> createItem(@RequestHeader(USER_ID_HEADER) Long userId,
+    public ResponseEntity<ItemDto> createItem(SharerPrincipal principal,
                                               @RequestBody ItemDto itemDto) {
         if (itemDto == null || itemDto.getName() == null || itemDto.getName().isEmpty() ||
                 itemDto.getDescription() == null || itemDto.getDescription().isEmpty() ||
                 itemDto.getAvailable() == null) {
             return ResponseEntity.badRequest().body(new ItemDto()); // 400
         }
-        // Валидация пользователя через UserService вместо UserController
-        if (userService.getUser(userId).isEmpty()) {
+        if (!principal.exists()) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.status(201).body(itemService.createItem(userId, itemDto));
+        return ResponseEntity.status(201).body(itemService.createItem(principal.getUserId(), itemDto));
     }
 
     // Метод для редактирования вещи
     /**
      * Обновление информации о предмете
-     * @param userId идентификатор владельца
+     * @param principal владелец
      * @param itemId идентификатор предмета
      * @param itemDto DTO с обновлёнными данными
      * @return обновлённый DTO предмета
      */
     @PatchMapping("/{itemId}")
     public ResponseEntity<ItemDto> updateItem(
-            @RequestHeader(USER_ID_HEADER) Long userId,
+            SharerPrincipal principal,
             @PathVariable Long itemId,
             @RequestBody ItemDto itemDto) {
-        // Валидация пользователя через UserService
-        if (userService.getUser(userId).isEmpty()) {
+        if (!principal.exists()) {
             return ResponseEntity.notFound().build();
         }
-        ItemDto updatedItem = itemService.updateItem(userId, itemId, itemDto);
+        ItemDto updatedItem = itemService.updateItem(principal.getUserId(), itemId, itemDto);
         return updatedItem != null ? ResponseEntity.ok(updatedItem) : ResponseEntity.notFound().build();
     }
 
     // Метод для получения информации о вещи по ID
     @GetMapping("/{itemId}")
-    public ResponseEntity<ItemDto> getItem(@RequestHeader(USER_ID_HEADER) Long userId, @PathVariable Long itemId) {
-        // Валидация пользователя через UserService
-        if (userService.getUser(userId).isEmpty()) {
+    public ResponseEntity<ItemDto> getItem(SharerPrincipal principal, @PathVariable Long itemId) {
+        if (!principal.exists()) {
             return ResponseEntity.notFound().build();
         }
-        ItemDto item = itemService.getItem(userId, itemId);
+        ItemDto item = itemService.getItem(principal.getUserId(), itemId);
         return item != null ? ResponseEntity.ok(item) : ResponseEntity.notFound().build();
     }
 
     // Метод для получения списка вещей владельца
     @GetMapping("/owner")
-    public ResponseEntity<List<ItemDto>> getUserItems(@RequestHeader(USER_ID_HEADER) Long userId) {
-        // Изменение: Валидация пользователя через UserService
-        if (userService.getUser(userId).isEmpty()) {
+    public ResponseEntity<List<ItemDto>> getUserItems(SharerPrincipal principal) {
+        if (!principal.exists()) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(itemService.getUserItems(userId));
+        return ResponseEntity.ok(itemService.getUserItems(principal.getUserId()));
     }
 
-    // Метод для поиска вещей по тексту
+    // Метод для поиска вещей по тексту (страница результатов, упорядоченных по релевантности);
+    // без from и size возвращаются все найденные вещи
     @GetMapping("/search")
-    public ResponseEntity<List<ItemDto>> searchItems(@RequestHeader(USER_ID_HEADER) Long userId,
-                                                     @RequestParam String text) {
-        if (userService.getUser(userId).isEmpty()) {
+    public ResponseEntity<List<ItemDto>> searchItems(SharerPrincipal principal,
+                                                     @RequestParam String text,
+                                                     @RequestParam(required = false) Integer from,
+                                                     @RequestParam(required = false) Integer size) {
+        if (!principal.exists()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(itemService.searchItems(principal.getUserId(), text, from, size));
+    }
+
+    /**
+     * Получение календаря доступности предмета
+     * @param principal пользователь
+     * @param itemId идентификатор предмета
+     * @param from начало диапазона
+     * @param to окончание диапазона
+     * @return свободные и занятые окна предмета в диапазоне [from, to)
+     */
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<ItemAvailabilityDto> getAvailability(
+            SharerPrincipal principal,
+            @PathVariable Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!principal.exists()) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(itemService.searchItems(userId, text));
+        return ResponseEntity.ok(itemService.getAvailability(itemId, from, to));
     }
 
     /**
      * Создание комментария к предмету
-     * @param userId идентификатор автора
+     * @param principal автор
      * @param itemId идентификатор предмета
      * @param commentDto DTO комментария
      * @return созданный комментарий
      */
     @PostMapping("/{itemId}/comment")
     public ResponseEntity<CommentDto> createComment(
-            @RequestHeader(USER_ID_HEADER) Long userId,
+            SharerPrincipal principal,
             @PathVariable Long itemId,
             @RequestBody CommentDto commentDto) {
         if (commentDto == null || commentDto.getText() == null || commentDto.getText().isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
-        if (userService.getUser(userId).isEmpty()) {
+        if (!principal.exists()) {
             return ResponseEntity.notFound().build();
         }
-        CommentDto createdComment = itemService.createComment(userId, itemId, commentDto);
+        CommentDto createdComment = itemService.createComment(principal.getUserId(), itemId, commentDto);
         return ResponseEntity.status(201).body(createdComment);
     }
 }
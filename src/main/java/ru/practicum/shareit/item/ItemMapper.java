@@ -20,6 +20,8 @@ public class ItemMapper {
         itemDto.setRentalCount(item.getRentalCount() != null ? item.getRentalCount() : 0);
         // Изменение: Копируем ownerId
         itemDto.setOwnerId(item.getOwnerId());
+        // Копируем идентификатор запроса
+        itemDto.setRequestId(item.getRequestId());
         // Изменение: Поля lastBooking и nextBooking оставляем null, так как они заполняются в ItemServiceImpl
         itemDto.setLastBooking(null);
         itemDto.setNextBooking(null);
@@ -42,6 +44,8 @@ public class ItemMapper {
         item.setRentalCount(itemDto.getRentalCount() != null ? itemDto.getRentalCount() : 0); // Установить 0 по умолчанию
         // Изменение: Копируем ownerId
         item.setOwnerId(itemDto.getOwnerId());
+        // Копируем идентификатор запроса
+        item.setRequestId(itemDto.getRequestId());
         return item;
     }
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.BoundedCache;
+import ru.practicum.shareit.cache.BoundedCacheMetrics;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Кэш результатов поиска вещей: нормализованный запрос (нижний регистр) → идентификаторы
+ * первых {@code depth} найденных вещей в порядке релевантности, как их вернула стратегия поиска.
+ * Попадание в кэш избавляет от поиска целиком: остаётся только загрузка вещей запрошенной страницы.
+ * <p>
+ * Запись инвалидируется, только если изменённая вещь совпадала с запросом до изменения или совпадает после него,
+ * поэтому правка вещи не сбрасывает результаты несвязанных запросов. Изменения, сделанные на других узлах,
+ * учитываются по истечении времени жизни записи. Метрики публикуются под именем кэша itemSearch.
+ */
+@Slf4j
+@Component
+public class ItemSearchCache {
+    static final String CACHE_NAME = "itemSearch";
+
+    private final BoundedCache<String, List<Long>> cache;
+    private final int depth;
+
+    public ItemSearchCache(@Value("${shareit.item.search.cache.max-size:1000}") int maxSize,
+                           @Value("${shareit.item.search.cache.ttl:PT5M}") Duration ttl,
+                           @Value("${shareit.item.search.cache.depth:100}") int depth,
+                           MeterRegistry meterRegistry) {
+        this.cache = new BoundedCache<>(maxSize, ttl);
+        this.depth = depth;
+        BoundedCacheMetrics.monitor(cache, CACHE_NAME, meterRegistry);
+    }
+
+    /**
+     * Возвращает идентификаторы первых limit найденных вещей: из кэша или вычисленные функцией поиска.
+     * Запросы глубже {@code depth} результатов не кэшируются.
+     *
+     * @param text   искомый текст
+     * @param limit  количество нужных результатов
+     * @param search функция поиска: (количество результатов) → идентификаторы вещей в порядке релевантности
+     * @return идентификаторы не более limit вещей в порядке релевантности
+     */
+    public List<Long> get(String text, int limit, Function<Integer, List<Long>> search) {
+        if (limit > depth) {
+            return search.apply(limit);
+        }
+        String key = normalize(text);
+        List<Long> ids = cache.get(key);
+        if (ids == null) {
+            long generation = cache.generation();
+            ids = List.copyOf(search.apply(depth));
+            cache.put(key, ids, generation);
+        }
+        return ids.size() > limit ? ids.subList(0, limit) : ids;
+    }
+
+    /**
+     * Инвалидирует записи, на результат которых может повлиять изменение вещи.
+     *
+     * @param before состояние вещи до изменения или null для новой вещи
+     * @param after  состояние вещи после изменения
+     */
+    public void itemChanged(ItemSnapshot before, ItemSnapshot after) {
+        if (before != null && before.equals(after)) {
+            return;
+        }
+        int removed = cache.invalidateIf((query, ids) -> matches(before, query) || matches(after, query));
+        if (removed > 0) {
+            log.debug("Invalidated {} cached search results after change of item {}", removed, after.id());
+        }
+    }
+
+    private static boolean matches(ItemSnapshot item, String query) {
+        return item != null && item.available()
+                && (item.name().contains(query) || item.description().contains(query));
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase();
+    }
+
+    /**
+     * Поля вещи, влияющие на результаты поиска (текст в нижнем регистре).
+     *
+     * @param id          идентификатор вещи
+     * @param name        название
+     * @param description описание
+     * @param available   доступность
+     */
+    public record ItemSnapshot(Long id, String name, String description, boolean available) {
+        public static ItemSnapshot of(Item item) {
+            return new ItemSnapshot(item.getId(),
+                    item.getName() != null ? item.getName().toLowerCase() : "",
+                    item.getDescription() != null ? item.getDescription().toLowerCase() : "",
+                    Boolean.TRUE.equals(item.getAvailable()));
+        }
+    }
+}
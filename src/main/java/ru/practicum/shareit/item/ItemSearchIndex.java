@@ -0,0 +1,230 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Инвертированный индекс доступных вещей для поиска по подстроке в названии и описании.
+ * <p>
+ * Текст приводится к нижнему регистру и разбивается на n-граммы длиной от 1 до {@value #GRAM_LENGTH} символов;
+ * для каждой n-граммы хранится множество вещей, в тексте которых она встречается. Запрос длиной не меньше
+ * {@value #GRAM_LENGTH} символов раскладывается на триграммы, кандидаты получаются пересечением их списков
+ * (начиная с самого короткого) и проверяются по сохранённому тексту, поэтому время поиска зависит
+ * от количества совпадений, а не от размера каталога. Из совпадений отбираются лучшие по релевантности
+ * ({@link #RANKING}) с помощью ограниченной кучи, поэтому полный набор совпадений не сортируется.
+ * <p>
+ * Индекс обновляется при создании и изменении вещей и строится параллельно при старте приложения;
+ * до окончания построения {@link #isReady()} возвращает false. Создаётся только для стратегии поиска memory.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.item.search.strategy", havingValue = "memory", matchIfMissing = true)
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+    /**
+     * Максимальная длина n-граммы.
+     */
+    static final int GRAM_LENGTH = 3;
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    /**
+     * Порядок релевантности: совпадение в названии выше совпадения только в описании,
+     * затем по убыванию количества аренд, затем по идентификатору.
+     */
+    static final Comparator<Hit> RANKING = Comparator.comparing(Hit::nameHit).reversed()
+            .thenComparing(Comparator.comparingInt(Hit::rentalCount).reversed())
+            .thenComparingLong(Hit::id);
+
+    private final ItemRepository itemRepository;
+
+    /**
+     * Списки вещей по n-граммам.
+     */
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    /**
+     * Проиндексированные тексты вещей, ключ — идентификатор вещи.
+     */
+    private final Map<Long, IndexedItem> documents = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    /**
+     * Строит индекс по всем вещам каталога. Каждая порция вещей индексируется параллельно.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        long afterId = 0;
+        List<Item> items;
+        do {
+            items = itemRepository.findPageAfter(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            items.parallelStream().forEach(this::put);
+            if (!items.isEmpty()) {
+                afterId = items.get(items.size() - 1).getId();
+            }
+        } while (items.size() == REBUILD_BATCH_SIZE);
+        ready = true;
+        log.info("Item search index built: {} items, {} grams in {} ms", documents.size(), postings.size(),
+                System.currentTimeMillis() - started);
+    }
+
+    /**
+     * @return true, если индекс построен и может использоваться для поиска
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Добавляет или обновляет вещь в индексе. Недоступные вещи из индекса удаляются.
+     *
+     * @param item вещь
+     */
+    public void put(Item item) {
+        documents.compute(item.getId(), (id, old) -> {
+            IndexedItem updated = Boolean.TRUE.equals(item.getAvailable())
+                    ? new IndexedItem(lower(item.getName()), lower(item.getDescription()),
+                    item.getRentalCount() != null ? item.getRentalCount() : 0)
+                    : null;
+            Set<String> oldGrams = old != null ? old.grams() : Set.of();
+            Set<String> newGrams = updated != null ? updated.grams() : Set.of();
+            oldGrams.stream().filter(gram -> !newGrams.contains(gram)).forEach(gram -> unlink(gram, id));
+            newGrams.stream().filter(gram -> !oldGrams.contains(gram)).forEach(gram -> link(gram, id));
+            return updated;
+        });
+    }
+
+    /**
+     * Ищет доступные вещи, в названии или описании которых встречается текст (без учёта регистра),
+     * и возвращает не более limit лучших по релевантности.
+     *
+     * @param text  искомый текст
+     * @param limit максимальное количество результатов
+     * @return идентификаторы найденных вещей в порядке релевантности
+     */
+    public List<Long> search(String text, int limit) {
+        String query = lower(text);
+        if (query.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : queryGrams(query)) {
+            Set<Long> list = postings.get(gram);
+            if (list == null) {
+                return List.of();
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        List<Set<Long>> rest = lists.subList(1, lists.size());
+        // В вершине кучи — худшее из отобранных совпадений, оно вытесняется более релевантным
+        PriorityQueue<Hit> top = new PriorityQueue<>(RANKING.reversed());
+        for (Long id : lists.get(0)) {
+            if (!rest.stream().allMatch(list -> list.contains(id))) {
+                continue;
+            }
+            IndexedItem document = documents.get(id);
+            if (document == null) {
+                continue;
+            }
+            boolean nameHit = document.name().contains(query);
+            if (nameHit || document.description().contains(query)) {
+                top.offer(new Hit(id, nameHit, document.rentalCount()));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(RANKING);
+        return hits.stream().map(Hit::id).toList();
+    }
+
+    private void link(String gram, Long id) {
+        postings.compute(gram, (key, list) -> {
+            Set<Long> target = list != null ? list : ConcurrentHashMap.newKeySet();
+            target.add(id);
+            return target;
+        });
+    }
+
+    private void unlink(String gram, Long id) {
+        postings.computeIfPresent(gram, (key, list) -> {
+            list.remove(id);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    /**
+     * N-граммы запроса: триграммы для длинного запроса, сам запрос — для короткого.
+     */
+    private static Set<String> queryGrams(String query) {
+        if (query.length() <= GRAM_LENGTH) {
+            return Set.of(query);
+        }
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= query.length(); i++) {
+            grams.add(query.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static String lower(String value) {
+        return value != null ? value.toLowerCase() : "";
+    }
+
+    /**
+     * Совпадение поиска.
+     *
+     * @param id          идентификатор вещи
+     * @param nameHit     текст найден в названии
+     * @param rentalCount количество аренд вещи
+     */
+    record Hit(long id, boolean nameHit, int rentalCount) {
+    }
+
+    /**
+     * Текст вещи в нижнем регистре и количество её аренд.
+     *
+     * @param name        название
+     * @param description описание
+     * @param rentalCount количество аренд
+     */
+    private record IndexedItem(String name, String description, int rentalCount) {
+        /**
+         * Все подстроки длиной от 1 до {@value #GRAM_LENGTH} символов названия и описания.
+         */
+        Set<String> grams() {
+            Set<String> grams = new HashSet<>();
+            addGrams(name, grams);
+            addGrams(description, grams);
+            return grams;
+        }
+
+        private static void addGrams(String text, Set<String> grams) {
+            for (int i = 0; i < text.length(); i++) {
+                for (int length = 1; length <= GRAM_LENGTH && i + length <= text.length(); length++) {
+                    grams.add(text.substring(i, i + length));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * Стратегия поиска доступных вещей по тексту в названии или описании.
+ * Реализация выбирается свойством shareit.item.search.strategy: memory (по умолчанию) или database.
+ */
+public interface ItemSearchStrategy {
+    /**
+     * Ищет доступные вещи, в названии или описании которых встречается текст (без учёта регистра),
+     * и возвращает не более limit лучших по релевантности: совпадение в названии выше совпадения
+     * только в описании, затем по убыванию количества аренд, затем по идентификатору.
+     * Возвращаются только идентификаторы: вещи загружает вызывающий, и только для нужной ему страницы.
+     *
+     * @param text  непустой искомый текст
+     * @param limit максимальное количество результатов
+     * @return идентификаторы найденных вещей в порядке релевантности
+     */
+    List<Long> search(String text, int limit);
+
+    /**
+     * Уведомляет стратегию о сохранении вещи (создании или изменении).
+     *
+     * @param item сохранённая вещь
+     */
+    default void itemSaved(Item item) {
+    }
+
+    /**
+     * Преобразует текст в шаблон LIKE для поиска подстроки: нижний регистр,
+     * спецсимволы экранированы символом '!'.
+     *
+     * @param text искомый текст
+     * @return шаблон вида %текст%
+     */
+    static String containsPattern(String text) {
+        String escaped = text.toLowerCase()
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+        return "%" + escaped + "%";
+    }
+}
@@ -1,8 +1,10 @@
 package ru.practicum.shareit.item;
 
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 
@@ -44,13 +46,15 @@ public interface ItemService {
     List<ItemDto> getUserItems(Long userId);
 
     /**
-     * Поиск вещей по текстовому запросу.
+     * Поиск вещей по текстовому запросу с ранжированием по релевантности.
      *
      * @param userId идентификатор пользователя, выполняющего поиск.
      * @param text   текст для поиска в названии или описании вещи.
-     * @return список найденных вещей.
+     * @param from   смещение первого результата или null (0).
+     * @param size   размер страницы или null (10, если передан from); без from и size возвращаются все совпадения.
+     * @return страница найденных вещей: сначала совпадения в названии, затем по количеству аренд.
      */
-    List<ItemDto> searchItems(Long userId, String text);
+    List<ItemDto> searchItems(Long userId, String text, Integer from, Integer size);
 
     /**
      * Получение списка всех вещей с информацией о бронированиях.
@@ -69,4 +73,14 @@ public interface ItemService {
      * @return созданный комментарий.
      */
     CommentDto createComment(Long userId, Long itemId, CommentDto commentDto);
+
+    /**
+     * Получение календаря доступности вещи.
+     *
+     * @param itemId идентификатор вещи.
+     * @param from   начало диапазона.
+     * @param to     окончание диапазона.
+     * @return свободные и занятые окна вещи в диапазоне [from, to).
+     */
+    ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
 }
@@ -2,19 +2,32 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.BookingDates;
 import ru.practicum.shareit.booking.BookingService;
-import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.BookingWindow;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.ItemNotFoundException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.AvailabilityWindowDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.CommentRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.model.ItemRepository;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -24,6 +37,10 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor // Добавлена аннотация @RequiredArgsConstructor для автоматической инъекции ItemRepository
 @Slf4j
 public class ItemServiceImpl implements ItemService {
+    /**
+     * Максимальное количество попыток сохранения изменений вещи при конфликте версий.
+     */
+    static final int MAX_UPDATE_ATTEMPTS = 3;
 
     private final ItemRepository itemRepository;
 
@@ -34,7 +51,13 @@ public class ItemServiceImpl implements ItemService {
     // Изменение: Добавлена зависимость от UserService для получения имени автора
     private final UserService userService;
 
-    private Long idCounter = 1L;
+    private final ItemSearchStrategy searchStrategy;
+
+    private final ItemSearchCache searchCache;
+
+    private final ItemCache itemCache;
+
+    private final ItemRequestRepository itemRequestRepository;
 
     /**
      * {@inheritDoc}
@@ -42,29 +65,68 @@ public class ItemServiceImpl implements ItemService {
     @Override
     public ItemDto createItem(Long userId, ItemDto itemDto) {
         log.info("Creating item with userId: {}, itemDto: {}", userId, itemDto);
+        if (itemDto.getRequestId() != null && !itemRequestRepository.existsById(itemDto.getRequestId())) {
+            throw new NotFoundException(String.format("Запрос с ID %d не найден", itemDto.getRequestId()));
+        }
         Item item = ItemMapper.toItem(itemDto);
-        item.setId(idCounter++);
+        // Идентификатор и версию назначает база данных
+        item.setId(null);
         item.setOwnerId(userId);
         Item savedItem = itemRepository.save(item);
+        searchStrategy.itemSaved(savedItem);
+        searchCache.itemChanged(null, ItemSearchCache.ItemSnapshot.of(savedItem));
         log.info("Saved item: {}", savedItem);
         return ItemMapper.toItemDto(savedItem);
     }
 
     /**
      * {@inheritDoc}
+     * Каждое бронирование увеличивает версию вещи, поэтому сохранение может встретить конфликт версий
+     * с параллельно созданным бронированием. В этом случае вещь перечитывается и изменения применяются
+     * заново (не более {@value #MAX_UPDATE_ATTEMPTS} раз).
+     *
+     * @throws ConflictException если конфликт версий не удалось разрешить повторными попытками
      */
     @Override
     public ItemDto updateItem(Long userId, Long itemId, ItemDto itemDto) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return applyUpdate(userId, itemId, itemDto);
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_UPDATE_ATTEMPTS) {
+                    throw new ConflictException(String.format("Не удалось обновить вещь с ID %d: " +
+                            "конкурирующие изменения, попробуйте позже", itemId));
+                }
+                log.debug("Version conflict on item {} update, attempt {} of {}", itemId, attempt,
+                        MAX_UPDATE_ATTEMPTS);
+            }
+        }
+    }
+
+    /**
+     * Загружает актуальное состояние вещи, применяет к нему переданные поля и сохраняет.
+     *
+     * @param userId  идентификатор пользователя, обновляющего вещь
+     * @param itemId  идентификатор вещи
+     * @param itemDto новые данные вещи
+     * @return обновлённая вещь
+     */
+    private ItemDto applyUpdate(Long userId, Long itemId, ItemDto itemDto) {
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new RuntimeException("Вещь не найдена"));
         if (!item.getOwnerId().equals(userId)) {
             throw new RuntimeException("Пользователь не является владельцем");
         }
+        ItemSearchCache.ItemSnapshot before = ItemSearchCache.ItemSnapshot.of(item);
         // Обновляем поля, если они предоставлены
         if (itemDto.getName() != null) item.setName(itemDto.getName());
         if (itemDto.getDescription() != null) item.setDescription(itemDto.getDescription());
         if (itemDto.getAvailable() != null) item.setAvailable(itemDto.getAvailable());
-        return ItemMapper.toItemDto(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        searchStrategy.itemSaved(savedItem);
+        searchCache.itemChanged(before, ItemSearchCache.ItemSnapshot.of(savedItem));
+        itemCache.evict(itemId);
+        return ItemMapper.toItemDto(savedItem);
     }
 
     /**
@@ -72,12 +134,12 @@ public class ItemServiceImpl implements ItemService {
      */
     @Override
     public ItemDto getItem(Long userId, Long itemId) {
-        Item item = itemRepository.findById(itemId)
+        Item item = itemCache.findById(itemId)
                 .orElseThrow(() -> new RuntimeException("Вещь не найдена"));
 
 
         ItemDto itemDto = ItemMapper.toItemDto(item);
-        fillBookingDates(itemDto, item.getId(), userId);
+        fillBookingDates(itemDto, item, userId);
         fillComments(itemDto, itemId);
         return itemDto;
     }
@@ -87,15 +149,7 @@ public class ItemServiceImpl implements ItemService {
      */
     @Override
     public List<ItemDto> getAllItems(Long userId) {
-        List<Item> items = itemRepository.findByOwnerId(userId);
-        List<ItemDto> itemDtos = items.stream()
-                .map(ItemMapper::toItemDto)
-                .collect(Collectors.toList());
-        itemDtos.forEach(dto -> {
-            fillBookingDates(dto, dto.getId(), userId);
-            fillComments(dto, dto.getId());
-        });
-        return itemDtos;
+        return toOwnerItemDtos(itemRepository.findByOwnerId(userId));
     }
 
     /**
@@ -103,30 +157,36 @@ public class ItemServiceImpl implements ItemService {
      */
     @Override
     public List<ItemDto> getUserItems(Long userId) {
-        List<Item> items = itemRepository.findAll().stream()
-                .filter(item -> item.getOwnerId().equals(userId))
-                .collect(Collectors.toList());
-        List<ItemDto> itemDtos = items.stream()
-                .map(ItemMapper::toItemDto)
-                .collect(Collectors.toList());
-        itemDtos.forEach(dto -> {
-            fillBookingDates(dto, dto.getId(), userId);
-            fillComments(dto, dto.getId());
-        });
-        return itemDtos;
+        return toOwnerItemDtos(itemRepository.findByOwnerId(userId));
     }
 
 
     /**
      * {@inheritDoc}
+     * Поиск выполняет стратегия, выбранная свойством shareit.item.search.strategy; она возвращает только
+     * идентификаторы from + size лучших совпадений. Идентификаторы результатов частых запросов берутся из кэша,
+     * из базы одним запросом загружаются только вещи запрошенной страницы. Без from и size возвращаются
+     * все совпадения.
      */
     @Override
-    public List<ItemDto> searchItems(Long userId, String text) {
+    public List<ItemDto> searchItems(Long userId, String text, Integer from, Integer size) {
+        boolean paged = from != null || size != null;
+        int offset = from != null ? from : 0;
+        int pageSize = size != null ? size : CursorPage.DEFAULT_SIZE;
+        if (offset < 0 || pageSize <= 0) {
+            throw new IllegalArgumentException(String.format("Некорректные параметры пагинации: from=%d, size=%d",
+                    offset, pageSize));
+        }
         if (text == null || text.isEmpty()) return List.of();
-        return itemRepository.findAll().stream()
-                .filter(item -> item.getAvailable() != null && item.getAvailable() &&
-                        (item.getName().toLowerCase().contains(text.toLowerCase()) ||
-                                item.getDescription().toLowerCase().contains(text.toLowerCase())))
+        int limit = paged ? (int) Math.min((long) offset + pageSize, Integer.MAX_VALUE) : Integer.MAX_VALUE;
+        List<Long> ids = searchCache.get(text, limit, depth -> searchStrategy.search(text, depth));
+        if (ids.size() <= offset) return List.of();
+        List<Long> pageIds = ids.subList(offset, ids.size());
+        Map<Long, Item> items = itemRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return pageIds.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
                 .map(ItemMapper::toItemDto)
                 .collect(Collectors.toList());
     }
@@ -137,15 +197,11 @@ public class ItemServiceImpl implements ItemService {
     @Override
     public CommentDto createComment(Long userId, Long itemId, CommentDto commentDto) {
         // Проверка существования вещи
-        Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> new RuntimeException("Вещь не найдена"));
+        if (!itemCache.existsById(itemId)) {
+            throw new RuntimeException("Вещь не найдена");
+        }
         // Проверка, что пользователь арендовал вещь
-        List<BookingResponseDto> bookings = bookingService.getBookingsForItem(itemId);
-        boolean hasBooked = bookings.stream()
-                .anyMatch(booking -> booking.getBooker().getId().equals(userId) &&
-                        booking.getEnd().isBefore(LocalDateTime.now()) &&
-                        booking.getStatus().equals("APPROVED"));
-        if (!hasBooked) {
+        if (!bookingService.hasCompletedRental(userId, itemId)) {
             throw new RuntimeException("Пользователь не арендовал эту вещь");
         }
         String authorName = userService.getUser(userId)
@@ -160,56 +216,93 @@ public class ItemServiceImpl implements ItemService {
         return CommentMapper.toCommentDto(savedComment, authorName);
     }
 
+    /**
+     * {@inheritDoc}
+     * Занятые окна берутся из компактной шкалы интервалов бронирований, свободные — промежутки между ними.
+     */
+    @Override
+    public ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException(String.format("Некорректный диапазон календаря для вещи с ID %d",
+                    itemId));
+        }
+        if (!itemCache.existsById(itemId)) {
+            throw new ItemNotFoundException(String.format("Вещь с ID %d не найдена", itemId));
+        }
+        List<AvailabilityWindowDto> busy = new ArrayList<>();
+        List<AvailabilityWindowDto> free = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (BookingWindow window : bookingService.getBusyWindows(itemId, from, to)) {
+            if (cursor.isBefore(window.getStart())) {
+                free.add(new AvailabilityWindowDto(cursor, window.getStart()));
+            }
+            busy.add(new AvailabilityWindowDto(window.getStart(), window.getEnd()));
+            cursor = window.getEnd();
+        }
+        if (cursor.isBefore(to)) {
+            free.add(new AvailabilityWindowDto(cursor, to));
+        }
+        ItemAvailabilityDto availability = new ItemAvailabilityDto();
+        availability.setItemId(itemId);
+        availability.setFrom(from);
+        availability.setTo(to);
+        availability.setFree(free);
+        availability.setBusy(busy);
+        return availability;
+    }
+
+    /**
+     * Собирает DTO вещей владельца с датами бронирований и комментариями.
+     * Даты берутся из строк вещей (устаревшие вычисляются одним общим запросом), комментарии всех вещей
+     * с именами авторов загружаются одним запросом, поэтому число запросов не зависит от количества вещей.
+     * @param items Вещи владельца
+     * @return DTO вещей в том же порядке
+     */
+    private List<ItemDto> toOwnerItemDtos(List<Item> items) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, BookingDates> dates = bookingService.getBookingDates(items);
+        Map<Long, List<CommentDto>> comments = commentRepository.findCommentDtosByItemIds(
+                        items.stream().map(Item::getId).toList()).stream()
+                .collect(Collectors.groupingBy(CommentDto::getItemId));
+        return items.stream()
+                .map(item -> {
+                    ItemDto dto = ItemMapper.toItemDto(item);
+                    dto.setLastBooking(dates.get(item.getId()).getLastBooking());
+                    dto.setNextBooking(dates.get(item.getId()).getNextBooking());
+                    dto.setComments(comments.getOrDefault(item.getId(), List.of()));
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
+
     /**
      * Заполняет даты последнего и ближайшего бронирования для указанной вещи.
+     * Даты видит только владелец; они берутся из материализованных полей строки вещи.
      * @param itemDto DTO вещи, для которой нужно заполнить даты
-     * @param itemId ID вещи
+     * @param item Вещь
      * @param userId ID текущего пользователя
      */
-    private void fillBookingDates(ItemDto itemDto, Long itemId, Long userId) {
-        LocalDateTime now = LocalDateTime.now();
-        // Проверяем, является ли пользователь владельцем вещи
-        Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> new RuntimeException("Вещь не найдена"));
+    private void fillBookingDates(ItemDto itemDto, Item item, Long userId) {
         if (!item.getOwnerId().equals(userId)) {
             // Для невладельцев устанавливаем lastBooking и nextBooking в null
             itemDto.setLastBooking(null);
             itemDto.setNextBooking(null);
             return;
         }
-        // Для владельца заполняем даты бронирований
-        List<BookingResponseDto> bookings = bookingService.getBookingsForItem(itemId);
-        if (bookings != null && !bookings.isEmpty()) {
-            // Находим последнее бронирование (максимальная end дата до now)
-            itemDto.setLastBooking(bookings.stream()
-                    .filter(b -> b.getEnd().isBefore(now) && b.getStatus().equals("APPROVED"))
-                    .max((b1, b2) -> b1.getEnd().compareTo(b2.getEnd()))
-                    .map(BookingResponseDto::getEnd)
-                    .orElse(null));
-            // Находим ближайшее следующее бронирование (минимальная start дата после now)
-            itemDto.setNextBooking(bookings.stream()
-                    .filter(b -> b.getStart().isAfter(now) && b.getStatus().equals("APPROVED"))
-                    .min((b1, b2) -> b1.getStart().compareTo(b2.getStart()))
-                    .map(BookingResponseDto::getStart)
-                    .orElse(null));
-        }
+        BookingDates dates = bookingService.getBookingDates(item);
+        itemDto.setLastBooking(dates.getLastBooking());
+        itemDto.setNextBooking(dates.getNextBooking());
     }
 
     /**
      * Заполняет DTO вещи списком комментариев.
+     * Комментарии и имена авторов загружаются одним запросом с соединением по users.
      * @param itemDto DTO вещи, для которой нужно заполнить комментарии
      * @param itemId ID вещи
      */
     private void fillComments(ItemDto itemDto, Long itemId) {
-        List<Comment> comments = commentRepository.findByItemId(itemId);
-        List<CommentDto> commentDtos = comments.stream()
-                .map(comment -> {
-                    String authorName = userService.getUser(comment.getAuthorId())
-                            .orElseThrow(() -> new RuntimeException("Пользователь не найден"))
-                            .getName();
-                    return CommentMapper.toCommentDto(comment, authorName);
-                })
-                .collect(Collectors.toList());
-        itemDto.setComments(commentDtos);
+        itemDto.setComments(commentRepository.findCommentDtosByItemId(itemId));
     }
 }
\ No newline at end of file
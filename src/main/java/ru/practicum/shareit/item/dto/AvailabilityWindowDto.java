@@ -0,0 +1,28 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO окна в календаре доступности предмета.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class AvailabilityWindowDto {
+    /**
+     * Начало окна (включительно).
+     */
+    LocalDateTime start;
+
+    /**
+     * Окончание окна (не включительно).
+     */
+    LocalDateTime end;
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO календаря доступности предмета.
+ * Содержит свободные и занятые окна в запрошенном диапазоне.
+ */
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemAvailabilityDto {
+    /**
+     * Идентификатор предмета.
+     */
+    Long itemId;
+
+    /**
+     * Начало запрошенного диапазона.
+     */
+    LocalDateTime from;
+
+    /**
+     * Окончание запрошенного диапазона.
+     */
+    LocalDateTime to;
+
+    /**
+     * Свободные окна, отсортированные по началу.
+     */
+    List<AvailabilityWindowDto> free;
+
+    /**
+     * Занятые окна (бронирования в статусах WAITING и APPROVED), отсортированные по началу.
+     */
+    List<AvailabilityWindowDto> busy;
+}
@@ -44,6 +44,11 @@ public class ItemDto {
      */
     Long ownerId;
 
+    /**
+     * Идентификатор запроса, в ответ на который создан предмет.
+     */
+    Long requestId;
+
     /**
      * Время последнего бронирования предмета.
      */
@@ -1,7 +1,11 @@
 package ru.practicum.shareit.item.model;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.dto.CommentDto;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -15,4 +19,26 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
      * @return список комментариев для указанного предмета
      */
     List<Comment> findByItemId(Long itemId);
-}
\ No newline at end of file
+
+    /**
+     * Комментарии к предмету вместе с именами авторов одним запросом.
+     *
+     * @param itemId идентификатор предмета
+     * @return DTO комментариев, отсортированные по времени создания
+     */
+    @Query("select new ru.practicum.shareit.item.dto.CommentDto(c.id, c.text, c.itemId, c.authorId, u.name, " +
+            "c.created) from Comment c join User u on u.id = c.authorId " +
+            "where c.itemId = :itemId order by c.created")
+    List<CommentDto> findCommentDtosByItemId(@Param("itemId") Long itemId);
+
+    /**
+     * Комментарии к набору предметов вместе с именами авторов одним запросом.
+     *
+     * @param itemIds идентификаторы предметов
+     * @return DTO комментариев, отсортированные по времени создания
+     */
+    @Query("select new ru.practicum.shareit.item.dto.CommentDto(c.id, c.text, c.itemId, c.authorId, u.name, " +
+            "c.created) from Comment c join User u on u.id = c.authorId " +
+            "where c.itemId in :itemIds order by c.created")
+    List<CommentDto> findCommentDtosByItemIds(@Param("itemIds") Collection<Long> itemIds);
+}
@@ -5,6 +5,8 @@ import lombok.AccessLevel;
 import lombok.Data;
 import lombok.experimental.FieldDefaults;
 
+import java.time.LocalDateTime;
+
 /**
  * Модель предмета для аренды.
  */
@@ -44,9 +46,44 @@ public class Item {
     @Column(name = "owner_id", nullable = false)
     Long ownerId;
 
+    /**
+     * Идентификатор запроса, в ответ на который создан предмет
+     */
+    @Column(name = "request_id")
+    Long requestId;
+
     /**
      * Количество аренд предмета
      */
     @Column(name = "rental_count")
     Integer rentalCount;
+
+    /**
+     * Окончание последнего завершённого подтверждённого бронирования.
+     * Материализованное значение: поддерживается при изменении бронирований и планировщиком,
+     * поэтому не записывается при сохранении сущности.
+     */
+    @Column(name = "last_booking", insertable = false, updatable = false)
+    LocalDateTime lastBooking;
+
+    /**
+     * Начало ближайшего будущего подтверждённого бронирования (материализованное значение).
+     */
+    @Column(name = "next_booking", insertable = false, updatable = false)
+    LocalDateTime nextBooking;
+
+    /**
+     * Момент, после которого lastBooking и nextBooking устаревают: начало ближайшего бронирования
+     * или окончание текущего. null — значения не зависят от времени.
+     */
+    @Column(name = "booking_dates_refresh_at", insertable = false, updatable = false)
+    LocalDateTime bookingDatesRefreshAt;
+
+    /**
+     * Версия записи для оптимистической блокировки.
+     * Увеличивается при изменении вещи и при каждой записи бронирований этой вещи,
+     * что сериализует создание бронирований одной вещи между узлами.
+     */
+    @Version
+    Long version;
 }
\ No newline at end of file
@@ -1,8 +1,19 @@
 package ru.practicum.shareit.item.model;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Репозиторий для управления предметами аренды.
@@ -15,4 +26,147 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
      * @return список предметов принадлежащих указанному владельцу
      */
     List<Item> findByOwnerId(Long ownerId);
-}
\ No newline at end of file
+
+    /**
+     * Предметы, созданные в ответ на запросы, одним запросом для всех запросов.
+     *
+     * @param requestIds идентификаторы запросов
+     * @return ответы на запросы по возрастанию идентификатора предмета
+     */
+    @Query("select new ru.practicum.shareit.request.dto.ItemAnswerDto(i.id, i.name, i.ownerId, i.requestId) " +
+            "from Item i where i.requestId in :requestIds order by i.id")
+    List<ItemAnswerDto> findAnswersByRequestIds(@Param("requestIds") Collection<Long> requestIds);
+
+    /**
+     * Поиск доступных предметов по шаблону LIKE без учёта регистра в названии или описании.
+     * На PostgreSQL при стратегии поиска database выражения lower(name) и lower(description) покрыты
+     * триграммными GIN-индексами (schema-postgresql-search-database.sql, если доступно расширение pg_trgm),
+     * поэтому поиск подстроки не требует полного просмотра таблицы. На H2 поиск выполняется полным просмотром.
+     * Результаты упорядочены по релевантности: совпадение в названии, затем количество аренд.
+     * Выбираются только идентификаторы: предметы загружает вызывающий, и только для нужной страницы.
+     *
+     * @param pattern шаблон в нижнем регистре, спецсимволы экранированы символом '!'
+     * @param page    ограничение выборки
+     * @return идентификаторы найденных предметов в порядке релевантности
+     */
+    @Query("select i.id from Item i where i.available = true " +
+            "and (lower(i.name) like :pattern escape '!' or lower(i.description) like :pattern escape '!') " +
+            "order by case when lower(i.name) like :pattern escape '!' then 0 else 1 end, " +
+            "coalesce(i.rentalCount, 0) desc, i.id")
+    List<Long> searchAvailableIds(@Param("pattern") String pattern, Pageable page);
+
+    /**
+     * Текущая версия предмета без загрузки самого предмета.
+     * Используется для проверки актуальности шкалы бронирований при чтении занятых окон.
+     *
+     * @param id идентификатор предмета
+     * @return версия, если предмет найден
+     */
+    @Query("select i.version from Item i where i.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Загрузка предмета для создания бронирования.
+     * Версия предмета принудительно увеличивается при коммите, поэтому две транзакции,
+     * бронирующие один предмет на разных узлах, не могут обе завершиться успешно.
+     * Должен вызываться внутри транзакции.
+     *
+     * @param id идентификатор предмета
+     * @return предмет, если найден
+     */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("select i from Item i where i.id = :id")
+    Optional<Item> findForBooking(@Param("id") Long id);
+
+    /**
+     * Загрузка нескольких предметов для пакетного создания бронирований.
+     * Как и {@link #findForBooking(Long)}, принудительно увеличивает версию каждого предмета при коммите.
+     * Должен вызываться внутри транзакции.
+     *
+     * @param ids идентификаторы предметов
+     * @return найденные предметы
+     */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("select i from Item i where i.id in :ids")
+    List<Item> findAllForBooking(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Текущие версии нескольких предметов одним запросом.
+     *
+     * @param ids идентификаторы предметов
+     * @return версии найденных предметов
+     */
+    @Query("select new ru.practicum.shareit.item.model.ItemVersion(i.id, i.version) from Item i where i.id in :ids")
+    List<ItemVersion> findVersionsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Увеличение версии предмета без загрузки сущности.
+     * Используется, когда бронирования предмета изменились (например, отклонены),
+     * чтобы другие узлы перестроили свои шкалы интервалов.
+     *
+     * @param id идентификатор предмета
+     */
+    @Transactional
+    @Modifying
+    @Query("update Item i set i.version = i.version + 1 where i.id = :id")
+    void incrementVersion(@Param("id") Long id);
+
+    /**
+     * Увеличение версий нескольких предметов одним запросом.
+     *
+     * @param ids идентификаторы предметов
+     */
+    @Transactional
+    @Modifying
+    @Query("update Item i set i.version = i.version + 1 where i.id in :ids")
+    void incrementVersions(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Увеличение версии предмета, только если она не изменилась с момента чтения.
+     *
+     * @param id      идентификатор предмета
+     * @param version ожидаемая версия
+     * @return 1, если версия совпала и увеличена, иначе 0
+     */
+    @Modifying
+    @Query("update Item i set i.version = i.version + 1 where i.id = :id and i.version = :version")
+    int incrementVersionIfUnchanged(@Param("id") Long id, @Param("version") Long version);
+
+    /**
+     * Запись материализованных дат последнего и ближайшего бронирования предмета.
+     * Версия предмета не меняется, поэтому обновление не конфликтует с созданием бронирований.
+     *
+     * @param id          идентификатор предмета
+     * @param lastBooking окончание последнего завершённого бронирования
+     * @param nextBooking начало ближайшего будущего бронирования
+     * @param refreshAt   момент, после которого даты нужно пересчитать
+     */
+    @Transactional
+    @Modifying
+    @Query("update Item i set i.lastBooking = :lastBooking, i.nextBooking = :nextBooking, " +
+            "i.bookingDatesRefreshAt = :refreshAt where i.id = :id")
+    void updateBookingDates(@Param("id") Long id,
+                            @Param("lastBooking") LocalDateTime lastBooking,
+                            @Param("nextBooking") LocalDateTime nextBooking,
+                            @Param("refreshAt") LocalDateTime refreshAt);
+
+    /**
+     * Предметы, материализованные даты бронирований которых устарели к указанному моменту.
+     *
+     * @param now  текущий момент времени
+     * @param page размер порции
+     * @return идентификаторы предметов
+     */
+    @Query("select i.id from Item i where i.bookingDatesRefreshAt < :now order by i.bookingDatesRefreshAt")
+    List<Long> findIdsWithStaleBookingDates(@Param("now") LocalDateTime now, Pageable page);
+
+    /**
+     * Порция предметов с идентификатором больше указанного, для последовательного обхода каталога.
+     *
+     * @param afterId идентификатор последнего предмета предыдущей порции
+     * @param page    размер порции
+     * @return предметы, отсортированные по id
+     */
+    @Query("select i from Item i where i.id > :afterId order by i.id")
+    List<Item> findPageAfter(@Param("afterId") Long afterId, Pageable page);
+}
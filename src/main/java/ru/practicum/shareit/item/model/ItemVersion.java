@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Версия предмета, прочитанная без загрузки самого предмета.
+ */
+@Value
+@AllArgsConstructor
+public class ItemVersion {
+    Long itemId;
+
+    Long version;
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.AccessLevel;
+import lombok.Value;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * Страница результатов keyset-пагинации.
+ *
+ * @param <T> тип элементов страницы
+ */
+@Value
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CursorPage<T> {
+    /**
+     * Элементы страницы.
+     */
+    List<T> content;
+
+    /**
+     * Курсор следующей страницы или null, если страница последняя.
+     */
+    String nextCursor;
+
+    /**
+     * Размер страницы, если клиент передал from или курсор без size.
+     */
+    public static final int DEFAULT_SIZE = 10;
+
+    /**
+     * Формирует параметры выборки для страницы.
+     * При переданном курсоре выборка всегда начинается с нулевого смещения (keyset),
+     * без курсора параметр from работает как смещение для совместимости со старыми клиентами.
+     * Смещение не обязано быть кратным размеру страницы: from=5&size=10 возвращает записи с 5 по 14.
+     * Если не переданы ни from, ни size, ни курсор, выборка не ограничивается, как до появления пагинации.
+     *
+     * @param from   смещение первой записи (используется только без курсора) или null
+     * @param size   размер страницы или null ({@link #DEFAULT_SIZE}, если передан from или курсор)
+     * @param cursor курсор, полученный клиентом с предыдущей страницей
+     * @return параметры выборки или {@link Pageable#unpaged()}, если параметры пагинации не переданы
+     * @throws IllegalArgumentException если from отрицательный или size не положительный
+     */
+    public static Pageable pageable(Integer from, Integer size, String cursor) {
+        boolean hasCursor = cursor != null && !cursor.isBlank();
+        if (from == null && size == null && !hasCursor) {
+            return Pageable.unpaged();
+        }
+        int offset = from != null ? from : 0;
+        int limit = size != null ? size : DEFAULT_SIZE;
+        if (offset < 0 || limit <= 0) {
+            throw new IllegalArgumentException(String.format("Некорректные параметры пагинации: from=%d, size=%d",
+                    offset, limit));
+        }
+        return OffsetPageRequest.of(hasCursor ? 0 : offset, limit);
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.AccessLevel;
+import lombok.Value;
+import lombok.experimental.FieldDefaults;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Курсор для keyset-пагинации по паре (дата, id), отсортированной по убыванию.
+ * Клиенту передаётся в виде непрозрачной строки (Base64 URL-safe).
+ * Следующая страница выбирается условием {@code (date, id) < (cursor.date, cursor.id)},
+ * поэтому её стоимость не зависит от глубины страницы, в отличие от OFFSET.
+ */
+@Value
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class KeysetCursor {
+    /**
+     * Курсор первой страницы: больше любой реальной пары (дата, id).
+     */
+    public static final KeysetCursor FIRST = new KeysetCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+            Long.MAX_VALUE);
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Дата последней записи предыдущей страницы.
+     */
+    LocalDateTime timestamp;
+
+    /**
+     * Идентификатор последней записи предыдущей страницы.
+     */
+    Long id;
+
+    /**
+     * Кодирует курсор в непрозрачную строку для передачи клиенту.
+     *
+     * @return строковое представление курсора
+     */
+    public String encode() {
+        String raw = timestamp + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Восстанавливает курсор из строки, полученной от клиента.
+     *
+     * @param value строковое представление курсора; null или пустая строка означают первую страницу
+     * @return курсор
+     * @throws IllegalArgumentException если строка не является корректным курсором
+     */
+    public static KeysetCursor decode(String value) {
+        if (value == null || value.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Некорректный курсор пагинации: " + value);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Параметры выборки с произвольным смещением.
+ * В отличие от {@link org.springframework.data.domain.PageRequest}, смещение не обязано быть кратным размеру
+ * страницы: выборка начинается ровно с записи offset и содержит не более pageSize записей.
+ * Порядок задаётся самим запросом, поэтому сортировка не передаётся.
+ */
+@Value
+public class OffsetPageRequest implements Pageable {
+    /**
+     * Смещение первой записи.
+     */
+    long offset;
+
+    /**
+     * Максимальное количество записей.
+     */
+    int pageSize;
+
+    /**
+     * @param offset   смещение первой записи
+     * @param pageSize максимальное количество записей
+     * @return параметры выборки
+     * @throws IllegalArgumentException если offset отрицательный или pageSize не положительный
+     */
+    public static OffsetPageRequest of(long offset, int pageSize) {
+        if (offset < 0 || pageSize <= 0) {
+            throw new IllegalArgumentException(String.format("Некорректные параметры пагинации: from=%d, size=%d",
+                    offset, pageSize));
+        }
+        return new OffsetPageRequest(offset, pageSize);
+    }
+
+    @Override
+    public int getPageNumber() {
+        return (int) (offset / pageSize);
+    }
+
+    @Override
+    public Sort getSort() {
+        return Sort.unsorted();
+    }
+
+    @Override
+    public Pageable next() {
+        return new OffsetPageRequest(offset + pageSize, pageSize);
+    }
+
+    @Override
+    public Pageable previousOrFirst() {
+        return hasPrevious() ? new OffsetPageRequest(Math.max(offset - pageSize, 0), pageSize) : first();
+    }
+
+    @Override
+    public Pageable first() {
+        return new OffsetPageRequest(0, pageSize);
+    }
+
+    @Override
+    public Pageable withPage(int pageNumber) {
+        return new OffsetPageRequest((long) pageNumber * pageSize, pageSize);
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return offset > 0;
+    }
+}
@@ -1,11 +1,13 @@
 package ru.practicum.shareit.request;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.user.SharerPrincipal;
 
-import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -14,74 +16,69 @@ import java.util.Map;
  */
 @RestController
 @RequestMapping(path = "/requests")
+@RequiredArgsConstructor
 public class ItemRequestController {
     /**
-     * Хранилище запросов в памяти, где ключ — ID запроса.
+     * Сервис для работы с запросами на вещи.
      */
-    private final Map<Long, ItemRequest> requests = new HashMap<>();
-    /**
-     * Счётчик для генерации уникальных ID запросов.
-     */
-    private Long idCounter = 1L;
-    /**
-     * Константа для имени заголовка с ID пользователя.
-     */
-    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private final ItemRequestService itemRequestService;
+
+    // Заголовок ответа с курсором следующей страницы (отсутствует на последней странице)
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
     /**
      * Создает новый запрос на вещь.
      *
-     * @param userId     Идентификатор пользователя, создающего запрос. Передаётся в заголовке.
+     * @param principal  Пользователь, создающий запрос. Передаётся в заголовке.
      * @param requestDto DTO с данными для создания запроса.
      * @return {@link ResponseEntity} с DTO созданного запроса и статусом 201.
      *         В случае некорректных данных возвращает статус 400.
      */
     @PostMapping
-    public ResponseEntity<ItemRequestDto> createRequest(@RequestHeader(USER_ID_HEADER) Long userId,
+    public ResponseEntity<ItemRequestDto> createRequest(SharerPrincipal principal,
                                                         @RequestBody ItemRequestDto requestDto) {
         // Проверяем, что описание предоставлено
         if (requestDto.getDescription() == null || requestDto.getDescription().isEmpty()) {
             return ResponseEntity.badRequest().build(); // 400, если описание пустое
         }
-        // Создаём новую сущность запроса
-        ItemRequest request = new ItemRequest();
-        request.setId(idCounter++);
-        request.setDescription(requestDto.getDescription());
-        request.setRequesterId(userId);
-        request.setCreated(LocalDateTime.now());
-        // Сохраняем запрос
-        requests.put(request.getId(), request);
-        // Возвращаем DTO с кодом 201
-        return ResponseEntity.status(201).body(new ItemRequestDto(
-                request.getId(),
-                request.getDescription(),
-                request.getCreated(),
-                request.getRequesterId()
-        ));
+        // Возвращаем DTO с кодом 201 (404, если пользователь не найден)
+        return ResponseEntity.status(201).body(itemRequestService.createRequest(principal.requireExisting(),
+                requestDto));
     }
 
     /**
      * Возвращает список запросов, созданных пользователем.
      *
-     * @param userId Идентификатор пользователя, чьи запросы нужно получить.
-     * @return {@link ResponseEntity} с картой запросов пользователя и статусом 200.
+     * @param principal Пользователь, чьи запросы нужно получить.
+     * @return {@link ResponseEntity} с картой запросов пользователя (от новых к старым) и статусом 200.
      */
     @GetMapping
-    public ResponseEntity<Map<Long, ItemRequestDto>> getUserRequests(@RequestHeader(USER_ID_HEADER) Long userId) {
-        // Создаём мапу для хранения DTO запросов
-        Map<Long, ItemRequestDto> userRequests = new HashMap<>();
-        for (Map.Entry<Long, ItemRequest> entry : requests.entrySet()) {
-            if (entry.getValue().getRequesterId().equals(userId)) {
-                ItemRequest request = entry.getValue();
-                userRequests.put(request.getId(), new ItemRequestDto(
-                        request.getId(),
-                        request.getDescription(),
-                        request.getCreated(),
-                        request.getRequesterId()
-                ));
-            }
+    public ResponseEntity<Map<Long, ItemRequestDto>> getUserRequests(SharerPrincipal principal) {
+        return ResponseEntity.ok(itemRequestService.getUserRequests(principal.getUserId()));
+    }
+
+    /**
+     * Возвращает страницу запросов других пользователей, от новых к старым.
+     *
+     * @param principal Пользователь, просматривающий запросы (его собственные запросы исключаются).
+     * @param from      Смещение первой записи (используется только без курсора).
+     * @param size      Размер страницы (по умолчанию 10, если передан from или cursor);
+     *                  без from, size и cursor возвращаются все запросы.
+     * @param cursor    Курсор из заголовка X-Next-Cursor предыдущей страницы.
+     * @return {@link ResponseEntity} со списком запросов и статусом 200;
+     *         курсор следующей страницы передаётся в заголовке X-Next-Cursor.
+     */
+    @GetMapping("/all")
+    public ResponseEntity<List<ItemRequestDto>> getOtherUsersRequests(SharerPrincipal principal,
+                                                                      @RequestParam(required = false) Integer from,
+                                                                      @RequestParam(required = false) Integer size,
+                                                                      @RequestParam(required = false) String cursor) {
+        CursorPage<ItemRequestDto> page = itemRequestService.getOtherUsersRequests(principal.getUserId(), from, size,
+                cursor);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
         }
-        // Возвращаем список запросов пользователя
-        return ResponseEntity.ok(userRequests);
+        return response.body(page.getContent());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.request;
+
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+import java.util.List;
+
+/**
+ * Маппер для преобразования запросов на вещи в DTO.
+ */
+public class ItemRequestMapper {
+    /**
+     * Преобразует запрос в DTO.
+     *
+     * @param request запрос на вещь
+     * @param items   вещи, созданные в ответ на запрос
+     * @return DTO запроса
+     */
+    public static ItemRequestDto toItemRequestDto(ItemRequest request, List<ItemAnswerDto> items) {
+        return new ItemRequestDto(
+                request.getId(),
+                request.getDescription(),
+                request.getCreated(),
+                request.getRequesterId(),
+                items
+        );
+    }
+}
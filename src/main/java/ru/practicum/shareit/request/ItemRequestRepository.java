@@ -0,0 +1,42 @@
+package ru.practicum.shareit.request;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Репозиторий для работы с запросами на вещи.
+ */
+public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    /**
+     * Запросы пользователя от новых к старым.
+     * Выборка покрывается индексом idx_requests_requester_created (requester_id, created DESC).
+     *
+     * @param requesterId идентификатор автора запросов
+     * @return запросы пользователя
+     */
+    List<ItemRequest> findByRequesterIdOrderByCreatedDescIdDesc(Long requesterId);
+
+    /**
+     * Страница запросов других пользователей от новых к старым (keyset-пагинация по паре (created, id)).
+     * Выборка идёт по индексу idx_requests_created, поэтому стоимость страницы не зависит от её глубины.
+     *
+     * @param userId        идентификатор пользователя, чьи запросы исключаются
+     * @param cursorCreated дата создания последнего запроса предыдущей страницы
+     * @param cursorId      идентификатор последнего запроса предыдущей страницы
+     * @param page          размер выборки
+     * @return запросы, отсортированные по дате создания и id (от новых к старым)
+     */
+    @Query("select r from ItemRequest r " +
+            "where r.requesterId <> :userId " +
+            "and (r.created < :cursorCreated or (r.created = :cursorCreated and r.id < :cursorId)) " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequest> findOtherUsersRequests(@Param("userId") Long userId,
+                                             @Param("cursorCreated") LocalDateTime cursorCreated,
+                                             @Param("cursorId") Long cursorId,
+                                             Pageable page);
+}
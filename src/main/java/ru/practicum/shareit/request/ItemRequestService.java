@@ -0,0 +1,39 @@
+package ru.practicum.shareit.request;
+
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+import java.util.Map;
+
+/**
+ * Сервис для работы с запросами на вещи.
+ */
+public interface ItemRequestService {
+    /**
+     * Создаёт новый запрос на вещь.
+     *
+     * @param userId     идентификатор пользователя, создающего запрос.
+     * @param requestDto данные запроса.
+     * @return созданный запрос.
+     */
+    ItemRequestDto createRequest(Long userId, ItemRequestDto requestDto);
+
+    /**
+     * Возвращает запросы, созданные пользователем.
+     *
+     * @param userId идентификатор пользователя.
+     * @return запросы пользователя по идентификатору, от новых к старым.
+     */
+    Map<Long, ItemRequestDto> getUserRequests(Long userId);
+
+    /**
+     * Возвращает страницу запросов других пользователей, от новых к старым.
+     *
+     * @param userId идентификатор пользователя, чьи запросы исключаются.
+     * @param from   смещение первой записи (используется только без курсора) или null.
+     * @param size   размер страницы или null; без from, size и курсора возвращаются все запросы.
+     * @param cursor курсор, полученный с предыдущей страницей, или null для первой страницы.
+     * @return страница запросов с ответами на них и курсор следующей страницы.
+     */
+    CursorPage<ItemRequestDto> getOtherUsersRequests(Long userId, Integer from, Integer size, String cursor);
+}
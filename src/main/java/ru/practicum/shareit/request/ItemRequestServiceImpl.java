@@ -0,0 +1,102 @@
+package ru.practicum.shareit.request;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.item.model.ItemRepository;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Реализация сервиса для работы с запросами на вещи.
+ * Запросы хранятся в таблице requests, идентификаторы назначает база данных.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ItemRequestServiceImpl implements ItemRequestService {
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ItemRequestDto createRequest(Long userId, ItemRequestDto requestDto) {
+        ItemRequest request = new ItemRequest();
+        request.setDescription(requestDto.getDescription());
+        request.setRequesterId(userId);
+        request.setCreated(LocalDateTime.now());
+        ItemRequest savedRequest = itemRequestRepository.save(request);
+        log.debug("Item request saved: {}", savedRequest);
+        return ItemRequestMapper.toItemRequestDto(savedRequest, List.of());
+    }
+
+    /**
+     * {@inheritDoc}
+     * Ответы на все запросы загружаются одним запросом с условием IN, независимо от количества запросов.
+     */
+    @Override
+    public Map<Long, ItemRequestDto> getUserRequests(Long userId) {
+        Map<Long, ItemRequestDto> userRequests = new LinkedHashMap<>();
+        for (ItemRequestDto request : toDtos(itemRequestRepository.findByRequesterIdOrderByCreatedDescIdDesc(userId))) {
+            userRequests.put(request.getId(), request);
+        }
+        return userRequests;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Страница выбирается по курсору (created, id), ответы на запросы страницы — одним запросом с условием IN.
+     */
+    @Override
+    public CursorPage<ItemRequestDto> getOtherUsersRequests(Long userId, Integer from, Integer size, String cursor) {
+        Pageable page = CursorPage.pageable(from, size, cursor);
+        KeysetCursor keyset = KeysetCursor.decode(cursor);
+        List<ItemRequest> requests = itemRequestRepository.findOtherUsersRequests(userId, keyset.getTimestamp(),
+                keyset.getId(), page);
+        String nextCursor = null;
+        if (page.isPaged() && requests.size() == page.getPageSize()) {
+            ItemRequest last = requests.get(requests.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreated(), last.getId()).encode();
+        }
+        return new CursorPage<>(toDtos(requests), nextCursor);
+    }
+
+    /**
+     * Преобразует запросы в DTO вместе с ответами на них.
+     *
+     * @param requests запросы
+     * @return DTO запросов в том же порядке
+     */
+    private List<ItemRequestDto> toDtos(List<ItemRequest> requests) {
+        Map<Long, List<ItemAnswerDto>> answers = findAnswers(requests);
+        return requests.stream()
+                .map(request -> ItemRequestMapper.toItemRequestDto(request,
+                        answers.getOrDefault(request.getId(), List.of())))
+                .toList();
+    }
+
+    /**
+     * Загружает вещи, созданные в ответ на запросы.
+     *
+     * @param requests запросы
+     * @return ответы по идентификатору запроса
+     */
+    private Map<Long, List<ItemAnswerDto>> findAnswers(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return Map.of();
+        }
+        return itemRepository.findAnswersByRequestIds(requests.stream().map(ItemRequest::getId).toList()).stream()
+                .collect(Collectors.groupingBy(ItemAnswerDto::getRequestId));
+    }
+}
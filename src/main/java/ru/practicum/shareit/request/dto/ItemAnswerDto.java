@@ -0,0 +1,29 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.AccessLevel;
+import lombok.Value;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * DTO вещи, созданной в ответ на запрос.
+ */
+@Value
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemAnswerDto {
+    /**
+     * Идентификатор вещи.
+     */
+    Long id;
+    /**
+     * Название вещи.
+     */
+    String name;
+    /**
+     * Идентификатор владельца вещи.
+     */
+    Long ownerId;
+    /**
+     * Идентификатор запроса, на который отвечает вещь.
+     */
+    Long requestId;
+}
@@ -5,6 +5,7 @@ import lombok.Value;
 import lombok.experimental.FieldDefaults;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * DTO для запроса вещи.
@@ -28,4 +29,8 @@ public class ItemRequestDto {
      * Идентификатор пользователя, создавшего запрос.
      */
     Long requesterId;
+    /**
+     * Вещи, созданные в ответ на запрос.
+     */
+    List<ItemAnswerDto> items;
 }
@@ -0,0 +1,55 @@
+package ru.practicum.shareit.user;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.Value;
+import ru.practicum.shareit.exception.UserNotFoundException;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Пользователь, от имени которого выполняется запрос (заголовок X-Sharer-User-Id).
+ * Создаётся {@link SharerPrincipalArgumentResolver} по корректному заголовку. Существование пользователя
+ * проверяется только по требованию обработчика ({@link #exists()}), поэтому обработчик сохраняет свой
+ * порядок проверок: например, некорректное тело запроса даёт 400 раньше, чем неизвестный пользователь — 404.
+ */
+@Value
+public class SharerPrincipal {
+    /**
+     * Имя заголовка с идентификатором пользователя.
+     */
+    public static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    /**
+     * Идентификатор пользователя.
+     */
+    Long userId;
+
+    /**
+     * Проверка существования пользователя (через кэш присутствия пользователей).
+     */
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    BooleanSupplier presence;
+
+    /**
+     * @return true, если пользователь существует
+     */
+    public boolean exists() {
+        return presence.getAsBoolean();
+    }
+
+    /**
+     * @return идентификатор существующего пользователя
+     * @throws UserNotFoundException если пользователь не найден
+     */
+    public Long requireExisting() {
+        if (!exists()) {
+            throw new UserNotFoundException(String.format("Пользователь с ID %d не найден", userId));
+        }
+        return userId;
+    }
+}
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.user;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.MissingRequestHeaderException;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Разрешает параметры обработчиков типа {@link SharerPrincipal} по заголовку X-Sharer-User-Id.
+ * <p>
+ * Здесь проверяется только сам заголовок; существование пользователя проверяется через {@link UserPresenceCache},
+ * когда его запросит обработчик, поэтому ответы обработчиков (в т.ч. 400 на некорректное тело раньше 404
+ * на неизвестного пользователя) не меняются. Принципал сохраняется в атрибуте запроса и переиспользуется
+ * при повторном разрешении.
+ */
+@Component
+@RequiredArgsConstructor
+public class SharerPrincipalArgumentResolver implements HandlerMethodArgumentResolver {
+    private static final String PRINCIPAL_ATTRIBUTE = SharerPrincipal.class.getName();
+
+    private final UserPresenceCache userPresenceCache;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return SharerPrincipal.class.equals(parameter.getParameterType());
+    }
+
+    /**
+     * @throws MissingRequestHeaderException если заголовок отсутствует
+     * @throws IllegalArgumentException      если заголовок не является числом
+     */
+    @Override
+    public SharerPrincipal resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                           NativeWebRequest webRequest, WebDataBinderFactory binderFactory)
+            throws MissingRequestHeaderException {
+        Object resolved = webRequest.getAttribute(PRINCIPAL_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (resolved != null) {
+            return (SharerPrincipal) resolved;
+        }
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        String header = request != null ? request.getHeader(SharerPrincipal.USER_ID_HEADER) : null;
+        if (header == null) {
+            throw new MissingRequestHeaderException(SharerPrincipal.USER_ID_HEADER, parameter);
+        }
+        long userId;
+        try {
+            userId = Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Некорректный заголовок %s: %s",
+                    SharerPrincipal.USER_ID_HEADER, header));
+        }
+        SharerPrincipal principal = new SharerPrincipal(userId, () -> userPresenceCache.exists(userId));
+        webRequest.setAttribute(PRINCIPAL_ATTRIBUTE, principal, RequestAttributes.SCOPE_REQUEST);
+        return principal;
+    }
+}
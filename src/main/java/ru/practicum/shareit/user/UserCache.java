@@ -0,0 +1,31 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.EntityCache;
+
+import java.time.Duration;
+
+/**
+ * Кэш пользователей перед {@link UserRepository#findById(Object)}. Метрики публикуются под именем кэша users.
+ * Инвалидируется при изменении и удалении пользователя.
+ */
+@Component
+public class UserCache extends EntityCache<User> {
+
+    public UserCache(UserRepository userRepository,
+                     @Value("${shareit.cache.users.max-size:10000}") int maxSize,
+                     @Value("${shareit.cache.users.ttl:PT10M}") Duration ttl,
+                     MeterRegistry meterRegistry) {
+        super("users", maxSize, ttl, userRepository::findById, UserCache::copy, meterRegistry);
+    }
+
+    private static User copy(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setName(user.getName());
+        copy.setEmail(user.getEmail());
+        return copy;
+    }
+}
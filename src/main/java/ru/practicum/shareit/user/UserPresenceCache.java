@@ -0,0 +1,53 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.BoundedCache;
+import ru.practicum.shareit.cache.BoundedCacheMetrics;
+
+import java.time.Duration;
+
+/**
+ * Короткоживущий кэш существования пользователей: хранит как известные, так и неизвестные идентификаторы,
+ * поэтому повторные запросы с несуществующим пользователем тоже не обращаются к базе.
+ * Запись пользователя удаляется при его создании и удалении. Метрики публикуются под именем кэша userPresence.
+ */
+@Component
+public class UserPresenceCache {
+    private final BoundedCache<Long, Boolean> cache;
+    private final UserCache userCache;
+
+    public UserPresenceCache(UserCache userCache,
+                             @Value("${shareit.cache.user-presence.max-size:10000}") int maxSize,
+                             @Value("${shareit.cache.user-presence.ttl:PT30S}") Duration ttl,
+                             MeterRegistry meterRegistry) {
+        this.cache = new BoundedCache<>(maxSize, ttl);
+        this.userCache = userCache;
+        BoundedCacheMetrics.monitor(cache, "userPresence", meterRegistry);
+    }
+
+    /**
+     * @param userId идентификатор пользователя
+     * @return true, если пользователь существует
+     */
+    public boolean exists(Long userId) {
+        Boolean cached = cache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = cache.generation();
+        boolean exists = userCache.existsById(userId);
+        cache.put(userId, exists, generation);
+        return exists;
+    }
+
+    /**
+     * Удаляет запись пользователя после его создания или удаления.
+     *
+     * @param userId идентификатор пользователя
+     */
+    public void evict(Long userId) {
+        cache.invalidate(userId);
+    }
+}
@@ -19,6 +19,8 @@ import java.util.stream.Collectors;
 @Slf4j
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final UserPresenceCache userPresenceCache;
 
     /**
      * Паттерн для валидации email-адресов.
@@ -53,6 +55,8 @@ public class UserServiceImpl implements UserService {
 
         User user = UserMapper.toUser(userDto);
         User savedUser = userRepository.save(user);
+        // Идентификатор мог быть закэширован как неизвестный до создания пользователя
+        userPresenceCache.evict(savedUser.getId());
         log.debug("User saved successfully: {}", savedUser);
         return UserMapper.toUserDto(savedUser);
     }
@@ -70,7 +74,9 @@ public class UserServiceImpl implements UserService {
         } else if (userDto.getEmail() != null) {
             throw new ConflictException("Email already exists");
         }
-        return UserMapper.toUserDto(userRepository.save(user));
+        User savedUser = userRepository.save(user);
+        userCache.evict(userId);
+        return UserMapper.toUserDto(savedUser);
     }
 
     /**
@@ -78,7 +84,7 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public Optional<UserDto> getUser(Long userId) {
-        return userRepository.findById(userId).map(UserMapper::toUserDto);
+        return userCache.findById(userId).map(UserMapper::toUserDto);
     }
 
     /**
@@ -97,5 +103,7 @@ public class UserServiceImpl implements UserService {
     @Override
     public void deleteUser(Long userId) {
         userRepository.deleteById(userId);
+        userCache.evict(userId);
+        userPresenceCache.evict(userId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+-- Индексы для поиска вещей средствами базы данных (shareit.item.search.strategy=database).
+-- Скрипт выполняется только при этой стратегии на PostgreSQL: при поиске в памяти индексы не нужны.
+-- Триграммные GIN-индексы по lower(name) и lower(description) позволяют выполнять
+-- поиск подстроки (lower(...) LIKE '%текст%') без полного просмотра таблицы items.
+-- CREATE EXTENSION требует повышенных прав: если расширения нет и роль не может его установить,
+-- индексы не создаются и поиск работает полным просмотром, а запуск приложения не прерывается.
+-- Тело блока записано в одинарных кавычках, потому что загрузчик скриптов Spring не разбирает $$.
+DO '
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_extension WHERE extname = ''pg_trgm'') THEN
+        BEGIN
+            CREATE EXTENSION pg_trgm;
+        EXCEPTION WHEN insufficient_privilege OR undefined_file THEN
+            RAISE WARNING ''pg_trgm is not installed, item search indexes are skipped: %'', SQLERRM;
+            RETURN;
+        END;
+    END IF;
+    CREATE INDEX IF NOT EXISTS idx_items_name_trgm ON items USING gin (lower(name) gin_trgm_ops)
+        WHERE is_available;
+    CREATE INDEX IF NOT EXISTS idx_items_description_trgm ON items USING gin (lower(description) gin_trgm_ops)
+        WHERE is_available;
+END';
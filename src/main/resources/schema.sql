@@ -7,6 +7,21 @@ CREATE TABLE IF NOT EXISTS users (
     CONSTRAINT uq_user_email UNIQUE (email)
 );
 
+-- Таблица requests для хранения запросов на вещи
+CREATE TABLE IF NOT EXISTS requests (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    description VARCHAR(512) NOT NULL,
+    requester_id BIGINT NOT NULL,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_request PRIMARY KEY (id),
+    CONSTRAINT fk_request_user FOREIGN KEY (requester_id) REFERENCES users(id)
+);
+
+-- Индекс для выборки запросов пользователя от новых к старым
+CREATE INDEX IF NOT EXISTS idx_requests_requester_created ON requests (requester_id, created DESC);
+-- Индекс для ленты запросов других пользователей: keyset-пагинация по паре (created, id) от новых к старым
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created DESC, id DESC);
+
 -- Создание таблицы items
 CREATE TABLE IF NOT EXISTS items (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -15,9 +30,22 @@ CREATE TABLE IF NOT EXISTS items (
   is_available BOOLEAN NOT NULL,
   owner_id BIGINT NOT NULL,
   rental_count INTEGER DEFAULT 0,
-  CONSTRAINT pk_item PRIMARY KEY (id)
+  version BIGINT DEFAULT 0 NOT NULL,
+  last_booking TIMESTAMP WITHOUT TIME ZONE,
+  next_booking TIMESTAMP WITHOUT TIME ZONE,
+  booking_dates_refresh_at TIMESTAMP WITHOUT TIME ZONE,
+  request_id BIGINT,
+  CONSTRAINT pk_item PRIMARY KEY (id),
+  CONSTRAINT fk_item_request FOREIGN KEY (request_id) REFERENCES requests(id)
 );
 
+-- Индекс для выборки вещей владельца и соединения бронирований с вещами по owner_id
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
+-- Индекс для поиска вещей с устаревшими датами последнего/ближайшего бронирования
+CREATE INDEX IF NOT EXISTS idx_items_booking_dates_refresh ON items (booking_dates_refresh_at);
+-- Индекс для загрузки вещей, созданных в ответ на запросы
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+
 -- Таблица bookings для хранения бронирований
 CREATE TABLE IF NOT EXISTS bookings (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -26,11 +54,44 @@ CREATE TABLE IF NOT EXISTS bookings (
     item_id BIGINT NOT NULL,
     booker_id BIGINT NOT NULL,
     status VARCHAR(50) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
     CONSTRAINT pk_booking PRIMARY KEY (id),
     CONSTRAINT fk_booking_item FOREIGN KEY (item_id) REFERENCES items(id),
     CONSTRAINT fk_booking_user FOREIGN KEY (booker_id) REFERENCES users(id)
 );
 
+-- Индексы для выборки бронирований пользователя по состояниям (ALL/CURRENT/PAST/FUTURE и WAITING/REJECTED);
+-- id входит в индекс, так как keyset-пагинация сортирует и отсекает страницы по паре (start_date, id)
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON bookings (booker_id, status, start_date DESC, id DESC);
+-- Индекс для соединения бронирований с вещами владельца
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date DESC, id DESC);
+-- Индекс для проверки завершённой аренды вещи пользователем перед публикацией отзыва
+CREATE INDEX IF NOT EXISTS idx_bookings_item_booker_end ON bookings (item_id, booker_id, end_date);
+
+-- Архив завершённых бронирований: сюда планировщик переносит бронирования, закончившиеся раньше горизонта хранения,
+-- чтобы горячая таблица bookings оставалась небольшой
+CREATE TABLE IF NOT EXISTS bookings_archive (
+    id BIGINT NOT NULL,
+    start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    item_id BIGINT NOT NULL,
+    booker_id BIGINT NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    archived_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_booking_archive PRIMARY KEY (id),
+    CONSTRAINT fk_booking_archive_item FOREIGN KEY (item_id) REFERENCES items(id),
+    CONSTRAINT fk_booking_archive_user FOREIGN KEY (booker_id) REFERENCES users(id)
+);
+
+-- Индексы архива повторяют индексы bookings для keyset-пагинации PAST/ALL
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_booker_start ON bookings_archive (booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_item_start ON bookings_archive (item_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_item_booker ON bookings_archive (item_id, booker_id);
+-- Индекс для выбора кандидатов на архивирование по дате окончания
+CREATE INDEX IF NOT EXISTS idx_bookings_end ON bookings (end_date);
+
 -- таблица comments для хранения отзывов
 CREATE TABLE IF NOT EXISTS comments (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -43,4 +104,7 @@ CREATE TABLE IF NOT EXISTS comments (
     CONSTRAINT fk_comment_user FOREIGN KEY (author_id) REFERENCES users(id)
 );
 
-TRUNCATE TABLE items, users, bookings, comments RESTART IDENTITY CASCADE;
\ No newline at end of file
+-- Индекс для выборки комментариев вещи (или набора вещей) в порядке создания
+CREATE INDEX IF NOT EXISTS idx_comments_item_created ON comments (item_id, created);
+
+TRUNCATE TABLE items, users, bookings, bookings_archive, comments, requests RESTART IDENTITY CASCADE;
\ No newline at end of file
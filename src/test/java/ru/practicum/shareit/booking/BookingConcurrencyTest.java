@@ -0,0 +1,167 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.exception.BookingOverlapException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Нагрузочный тест создания бронирований: тысячи параллельных запросов к нескольким вещам
+ * не должны приводить к пересечению бронирований WAITING/APPROVED.
+ * Пропускная способность под конкуренцией сравнивается с однопоточным прогоном в том же тесте,
+ * поэтому проверка не зависит от скорости машины.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int REQUESTS_PER_WAVE = 2_000;
+    private static final int ITEMS = 5;
+    private static final int BOOKERS = 20;
+
+    /**
+     * Во сколько раз пропускная способность под конкуренцией может уступать однопоточной.
+     */
+    private static final int MAX_SLOWDOWN = 4;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void parallelBookingsNeverOverlap() throws Exception {
+        User owner = saveUser("owner");
+        List<Long> bookerIds = new ArrayList<>();
+        for (int i = 0; i < BOOKERS; i++) {
+            bookerIds.add(saveUser("booker" + i).getId());
+        }
+        List<Long> itemIds = new ArrayList<>();
+        List<Long> baselineItemIds = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            itemIds.add(saveItem(owner.getId(), "item" + i).getId());
+            baselineItemIds.add(saveItem(owner.getId(), "baseline" + i).getId());
+        }
+
+        LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        // Однопоточный прогон на отдельных вещах с тем же распределением запросов задаёт базу сравнения
+        double baseline;
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            baseline = runWave(single, base, bookerIds, baselineItemIds, new AtomicInteger(), new AtomicInteger(),
+                    failed);
+        } finally {
+            single.shutdownNow();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            double throughput = runWave(executor, base, bookerIds, itemIds, created, rejected, failed);
+            runWave(executor, base, bookerIds, itemIds, created, rejected, failed);
+
+            assertEquals(0, failed.get(), "Unexpected errors while booking");
+            assertEquals(2 * REQUESTS_PER_WAVE, created.get() + rejected.get());
+            assertTrue(created.get() > 0, "At least one booking must succeed");
+            assertTrue(throughput * MAX_SLOWDOWN >= baseline,
+                    String.format("Contended throughput %.0f req/s is over %d times below single-thread %.0f req/s",
+                            throughput, MAX_SLOWDOWN, baseline));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Long> allItemIds = new ArrayList<>(itemIds);
+        allItemIds.addAll(baselineItemIds);
+        for (Long itemId : allItemIds) {
+            List<Booking> bookings = new ArrayList<>(bookingRepository.findByItemIdAndStatusInAndEndAfter(itemId,
+                    BookingIntervalIndex.BLOCKING_STATUSES, base));
+            bookings.sort(Comparator.comparing(Booking::getStart));
+            for (int i = 1; i < bookings.size(); i++) {
+                Booking previous = bookings.get(i - 1);
+                Booking current = bookings.get(i);
+                assertTrue(!current.getStart().isBefore(previous.getEnd()),
+                        String.format("Bookings %d and %d of item %d overlap", previous.getId(), current.getId(),
+                                itemId));
+            }
+        }
+    }
+
+    /**
+     * Выполняет волну параллельных запросов, подсчитывая созданные, отклонённые и завершившиеся ошибкой.
+     *
+     * @return пропускная способность волны, запросов в секунду
+     */
+    private double runWave(ExecutorService executor, LocalDateTime base, List<Long> bookerIds, List<Long> itemIds,
+                           AtomicInteger created, AtomicInteger rejected, AtomicInteger failed) throws Exception {
+        long startedAt = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(REQUESTS_PER_WAVE);
+        for (int i = 0; i < REQUESTS_PER_WAVE; i++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                BookingRequestDto request = new BookingRequestDto();
+                request.setItemId(itemIds.get(random.nextInt(itemIds.size())));
+                request.setStart(base.plusHours(random.nextInt(2_000)));
+                request.setEnd(request.getStart().plusHours(1 + random.nextInt(3)));
+                Long bookerId = bookerIds.get(random.nextInt(bookerIds.size()));
+                try {
+                    bookingService.createBooking(bookerId, request);
+                    created.incrementAndGet();
+                } catch (BookingOverlapException e) {
+                    rejected.incrementAndGet();
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        return REQUESTS_PER_WAVE / ((System.nanoTime() - startedAt) / 1e9);
+    }
+
+    private User saveUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + System.nanoTime() + "@example.com");
+        return userRepository.save(user);
+    }
+
+    private Item saveItem(Long ownerId, String name) {
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription(name);
+        item.setAvailable(true);
+        item.setOwnerId(ownerId);
+        return itemRepository.save(item);
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Параллельное создание запросов на вещи не должно терять запросы и выдавать повторяющиеся идентификаторы.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ItemRequestConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int REQUESTS_PER_THREAD = 100;
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void parallelCreationKeepsEveryRequestWithUniqueId() throws Exception {
+        User requester = new User();
+        requester.setName("requester");
+        requester.setEmail("requester" + System.nanoTime() + "@example.com");
+        Long requesterId = userRepository.save(requester).getId();
+
+        ConcurrentLinkedQueue<Long> createdIds = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int threadNumber = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                        ItemRequestDto request = new ItemRequestDto(null, "need " + threadNumber + "-" + i,
+                                null, null, null);
+                        createdIds.add(itemRequestService.createRequest(requesterId, request).getId());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int expected = THREADS * REQUESTS_PER_THREAD;
+        Set<Long> uniqueIds = new HashSet<>(createdIds);
+        assertEquals(expected, createdIds.size(), "Lost requests");
+        assertEquals(expected, uniqueIds.size(), "Duplicate request IDs");
+
+        Map<Long, ItemRequestDto> stored = itemRequestService.getUserRequests(requesterId);
+        assertEquals(uniqueIds, stored.keySet());
+        assertEquals(expected, itemRequestRepository.findByRequesterIdOrderByCreatedDescIdDesc(requesterId).size());
+    }
+}